@@ -0,0 +1,25 @@
+package com.javacademy.new_york_times.benchmark;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+import com.javacademy.new_york_times.repository.NewsRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link NewsRepository}, который только выдает номера и ничего не хранит.
+ * Нужен, чтобы замер памяти видел одну копию новостей - ту, что держит хранилище.
+ */
+public class DiscardingNewsRepository extends NewsRepository {
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Override
+    public void save(NewsEntity entity) {
+        entity.setNumber(counter.incrementAndGet());
+    }
+
+    @Override
+    public List<NewsEntity> findAll() {
+        return List.of();
+    }
+}
@@ -0,0 +1,31 @@
+package com.javacademy.new_york_times.benchmark;
+
+import com.javacademy.new_york_times.config.NewsStoreProperties;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import com.javacademy.new_york_times.repository.CachedNewsStore;
+import com.javacademy.new_york_times.repository.RepositoryNewsBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+final class NewsFixtures {
+
+    private NewsFixtures() {
+    }
+
+    static CachedNewsStore store(int size) {
+        CachedNewsStore store = new CachedNewsStore(new RepositoryNewsBackend(new StubNewsRepository()),
+                new NewsStoreProperties(), new SimpleMeterRegistry());
+        store.load();
+        for (int i = 1; i <= size; i++) {
+            store.save(news(i));
+        }
+        return store;
+    }
+
+    static NewsEntity news(int seed) {
+        return NewsEntity.builder()
+                .title("News #%s".formatted(seed))
+                .text("Today is Groundhog Day #%s".formatted(seed))
+                .author("Molodyko Yuri")
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.javacademy.new_york_times.benchmark;
+
+import com.javacademy.new_york_times.config.NewsStoreProperties;
+import com.javacademy.new_york_times.repository.CachedNewsStore;
+import com.javacademy.new_york_times.repository.NewsStoreLayout;
+import com.javacademy.new_york_times.repository.RepositoryNewsBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Память хранилища на одну новость для каждого {@link NewsStoreLayout}.
+ * Результат - счетчик {@code bytesPerArticle}: прирост занятой кучи после полной сборки мусора,
+ * деленный на число новостей. В него входят и индексы хранилища, они одинаковы для обоих вариантов.
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Djmh.args="NewsLayoutMemoryBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class NewsLayoutMemoryBenchmark {
+    private static final int GC_ROUNDS = 3;
+
+    @Param({"ENTITY", "COMPACT"})
+    private NewsStoreLayout layout;
+
+    @Param({"1000000"})
+    private int size;
+
+    private CachedNewsStore store;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerArticle;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytesPerArticle = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void releaseStore() {
+        store = null;
+    }
+
+    @Benchmark
+    public CachedNewsStore fill(Footprint footprint) {
+        long before = usedHeap();
+        NewsStoreProperties properties = new NewsStoreProperties();
+        properties.setLayout(layout);
+        store = new CachedNewsStore(new RepositoryNewsBackend(new DiscardingNewsRepository()), properties,
+                new SimpleMeterRegistry());
+        store.load();
+        for (int i = 1; i <= size; i++) {
+            store.save(NewsFixtures.news(i));
+        }
+        footprint.bytesPerArticle = (usedHeap() - before) / size;
+        return store;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
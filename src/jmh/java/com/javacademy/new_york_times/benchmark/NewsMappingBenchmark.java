@@ -0,0 +1,80 @@
+package com.javacademy.new_york_times.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javacademy.new_york_times.dto.NewsDto;
+import com.javacademy.new_york_times.dto.NewsPageDto;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import com.javacademy.new_york_times.mapper.NewsMapper;
+import com.javacademy.new_york_times.mapper.NewsMapperImpl;
+import com.javacademy.new_york_times.mapper.NewsPatchMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Преобразования на горячем пути: слияние PATCH, маппинг страницы и сериализация страницы в JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NewsMappingBenchmark {
+    private static final int PAGE_SIZE = 10;
+    private static final int TOTAL_PAGES = 100;
+
+    private final NewsMapper newsMapper = new NewsMapperImpl();
+    private final NewsPatchMapper newsPatchMapper = new NewsPatchMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<NewsEntity> pageEntities;
+    private NewsDto oldDto;
+    private NewsDto patchDto;
+    private NewsPageDto<NewsDto> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pageEntities = IntStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(number -> {
+                    NewsEntity entity = NewsFixtures.news(number);
+                    entity.setNumber(number);
+                    return entity;
+                })
+                .toList();
+        oldDto = newsMapper.toDto(pageEntities.get(0));
+        patchDto = NewsDto.builder()
+                .title("Today is not Groundhog Day")
+                .build();
+        List<NewsDto> content = newsMapper.toDtos(pageEntities);
+        page = new NewsPageDto<>(content, TOTAL_PAGES, 1, PAGE_SIZE, content.size());
+    }
+
+    @Benchmark
+    public NewsDto patchMerge() {
+        return newsPatchMapper.convertToNewsDtoForPatch(oldDto, patchDto);
+    }
+
+    @Benchmark
+    public List<NewsDto> toDtos() {
+        return newsMapper.toDtos(pageEntities);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
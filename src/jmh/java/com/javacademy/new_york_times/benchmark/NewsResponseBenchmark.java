@@ -0,0 +1,85 @@
+package com.javacademy.new_york_times.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javacademy.new_york_times.config.NewsCacheProperties;
+import com.javacademy.new_york_times.controller.NewsResponseEncoder;
+import com.javacademy.new_york_times.dto.NewsDto;
+import com.javacademy.new_york_times.dto.NewsPageDto;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import com.javacademy.new_york_times.mapper.NewsMapper;
+import com.javacademy.new_york_times.mapper.NewsMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Тело ответа {@code GET /news?page=N} при попадании в кэш страниц: сериализация на каждый запрос,
+ * сериализация со сжатием и готовые байты из {@link NewsResponseEncoder}.
+ * Запуск: mvn -Pbenchmark test-compile exec:exec -Djmh.args="NewsResponseBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NewsResponseBenchmark {
+    private static final int PAGE_SIZE = 10;
+    private static final int TOTAL_PAGES = 100;
+
+    private final NewsMapper newsMapper = new NewsMapperImpl();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NewsResponseEncoder responseEncoder = new NewsResponseEncoder(objectMapper,
+            new NewsCacheProperties());
+
+    private NewsPageDto<NewsDto> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<NewsEntity> entities = IntStream.rangeClosed(1, PAGE_SIZE)
+                .mapToObj(number -> {
+                    NewsEntity entity = NewsFixtures.news(number);
+                    entity.setNumber(number);
+                    entity.setRevision((long) number);
+                    return entity;
+                })
+                .toList();
+        List<NewsDto> content = newsMapper.toDtos(entities);
+        page = new NewsPageDto<>(content, TOTAL_PAGES, 1, PAGE_SIZE, content.size());
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(objectMapper.writeValueAsBytes(page));
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodedGzip() {
+        return responseEncoder.encode(page).getGzip();
+    }
+}
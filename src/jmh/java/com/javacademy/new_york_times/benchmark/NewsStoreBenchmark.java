@@ -0,0 +1,86 @@
+package com.javacademy.new_york_times.benchmark;
+
+import com.javacademy.new_york_times.dto.NewsDto;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import com.javacademy.new_york_times.mapper.NewsMapper;
+import com.javacademy.new_york_times.mapper.NewsMapperImpl;
+import com.javacademy.new_york_times.repository.CachedNewsStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтения из {@link CachedNewsStore} на разных объемах.
+ * {@link #pageByCopySortSkip()} повторяет прежний алгоритм страниц и служит точкой сравнения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NewsStoreBenchmark {
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private CachedNewsStore store;
+    private NewsMapper newsMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = NewsFixtures.store(size);
+        newsMapper = new NewsMapperImpl();
+    }
+
+    @Benchmark
+    public List<NewsDto> pageFromIndex() {
+        return newsMapper.toDtos(store.findPage(randomPage() * PAGE_SIZE, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<NewsDto> pageByCopySortSkip() {
+        return newsMapper.toDtos(store.findAll().stream()
+                .sorted(Comparator.comparing(NewsEntity::getNumber))
+                .skip((long) randomPage() * PAGE_SIZE).limit(PAGE_SIZE).toList());
+    }
+
+    @Benchmark
+    public List<NewsDto> pageAfterCursor() {
+        return newsMapper.toDtos(store.findAfter(randomNumber(), PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Optional<NewsEntity> pointLookup() {
+        return store.findByNumber(randomNumber());
+    }
+
+    @Benchmark
+    public boolean missingLookup() {
+        return store.contains(size + randomNumber());
+    }
+
+    private int randomPage() {
+        return ThreadLocalRandom.current().nextInt(size / PAGE_SIZE);
+    }
+
+    private int randomNumber() {
+        return ThreadLocalRandom.current().nextInt(1, size + 1);
+    }
+}
@@ -0,0 +1,18 @@
+package com.javacademy.new_york_times.benchmark;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+import com.javacademy.new_york_times.repository.NewsRepository;
+
+import java.util.List;
+
+/**
+ * {@link NewsRepository} без пятисекундной задержки при стартовой загрузке.
+ * Данные в хранилище бенчмарки кладут сами через {@code save}.
+ */
+public class StubNewsRepository extends NewsRepository {
+
+    @Override
+    public List<NewsEntity> findAll() {
+        return List.of();
+    }
+}
@@ -5,7 +5,9 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(exclude = {
         DataSourceAutoConfiguration.class,
@@ -13,6 +15,8 @@ import org.springframework.cache.annotation.EnableCaching;
         HibernateJpaAutoConfiguration.class
 })
 @EnableCaching
+@EnableScheduling
+@ConfigurationPropertiesScan
 public class NewYorkTimesApplication {
 
     public static void main(String[] args) {
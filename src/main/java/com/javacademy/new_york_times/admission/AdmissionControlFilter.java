@@ -0,0 +1,130 @@
+package com.javacademy.new_york_times.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.javacademy.new_york_times.config.NewsAdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.javacademy.new_york_times.service.NewsErrorType.NEWS_RATE_LIMITED;
+import static com.javacademy.new_york_times.service.NewsErrorType.NEWS_SERVICE_BUSY;
+
+/**
+ * Пропускает запрос к {@code /news} только если у клиента есть токен в его {@link TokenBucket},
+ * иначе сразу отвечает 429 с {@code Retry-After} до следующего токена.
+ * Запросы на изменение дополнительно проходят через ограничитель одновременности: все они сходятся
+ * на блокировке хранилища, и без ограничения очередь потоков перед ней растет без предела.
+ * Если мест нет, ответ 503 возвращается сразу, не дожидаясь блокировки.
+ * Асинхронные повторные диспетчеризации не считаются, поэтому длинный опрос занимает один токен.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final String RETRY_AFTER_BUSY_SECONDS = "1";
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final NewsAdmissionProperties properties;
+    private final Cache<String, TokenBucket> buckets;
+    private final Semaphore writes;
+    private final Counter rateLimited;
+    private final Counter writesRejected;
+
+    public AdmissionControlFilter(NewsAdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getClientIdleTimeout())
+                .build();
+        this.writes = new Semaphore(properties.getMaxConcurrentWrites());
+        this.rateLimited = rejectedCounter(meterRegistry, "rate_limit");
+        this.writesRejected = rejectedCounter(meterRegistry, "writes");
+        Gauge.builder("news.admission.clients", buckets, Cache::estimatedSize)
+                .description("Клиенты, для которых сейчас хранится корзина токенов")
+                .register(meterRegistry);
+        Gauge.builder("news.admission.writes.active", writes,
+                        semaphore -> properties.getMaxConcurrentWrites() - semaphore.availablePermits())
+                .description("Запросы на изменение, которые сейчас ждут хранилище или работают с ним")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        long waitNanos = buckets.get(clientKey(request),
+                key -> new TokenBucket(properties.getBurst(), properties.getRatePerSecond(), now))
+                .tryAcquire(now);
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds(waitNanos),
+                    NEWS_RATE_LIMITED.getMessage());
+            return;
+        }
+        if (!isWrite(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!writes.tryAcquire()) {
+            writesRejected.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, RETRY_AFTER_BUSY_SECONDS,
+                    NEWS_SERVICE_BUSY.getMessage());
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            writes.release();
+        }
+    }
+
+    /**
+     * Ключ клиента - его адрес. Заголовок {@code client-header} учитывается, только если он настроен.
+     */
+    private String clientKey(HttpServletRequest request) {
+        if (!StringUtils.hasText(properties.getClientHeader())) {
+            return request.getRemoteAddr();
+        }
+        String client = request.getHeader(properties.getClientHeader());
+        return StringUtils.hasText(client) ? client : request.getRemoteAddr();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)
+                && !HttpMethod.OPTIONS.matches(method);
+    }
+
+    private static String retryAfterSeconds(long waitNanos) {
+        return String.valueOf(Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String retryAfter, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("news.admission.rejected")
+                .description("Запросы, отклоненные до обработки")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,38 @@
+package com.javacademy.new_york_times.admission;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Корзина токенов одного клиента: пополняется с постоянной скоростью до {@code capacity},
+ * каждый запрос забирает один токен. Время передается снаружи, чтобы корзину можно было проверять без часов.
+ */
+final class TokenBucket {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / NANOS_PER_SECOND;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    /**
+     * Забирает токен.
+     *
+     * @return 0, если токен взят, иначе через сколько наносекунд появится следующий
+     */
+    synchronized long tryAcquire(long now) {
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
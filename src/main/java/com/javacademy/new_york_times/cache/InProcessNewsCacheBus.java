@@ -0,0 +1,22 @@
+package com.javacademy.new_york_times.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * {@link NewsCacheBus} в памяти процесса: сообщения доставляются синхронно, в потоке отправителя.
+ */
+public class InProcessNewsCacheBus implements NewsCacheBus {
+    private final List<Consumer<NewsCacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(NewsCacheInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<NewsCacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
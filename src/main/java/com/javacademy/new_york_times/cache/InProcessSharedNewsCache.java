@@ -0,0 +1,36 @@
+package com.javacademy.new_york_times.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link SharedNewsCache} в памяти процесса: замена внешнего хранилища для тестов и локального запуска.
+ * Записи не истекают и не вытесняются.
+ */
+public class InProcessSharedNewsCache implements SharedNewsCache {
+    private final Map<String, Map<Object, Object>> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public Object get(String cacheName, Object key) {
+        return cache(cacheName).get(key);
+    }
+
+    @Override
+    public void put(String cacheName, Object key, Object value) {
+        cache(cacheName).put(key, value);
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+        cache(cacheName).remove(key);
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        cache(cacheName).clear();
+    }
+
+    private Map<Object, Object> cache(String cacheName) {
+        return caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+    }
+}
@@ -0,0 +1,14 @@
+package com.javacademy.new_york_times.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Канал сообщений об инвалидации между узлами, например Redis pub/sub.
+ * Сообщение получают все подписчики, включая узел-отправитель.
+ */
+public interface NewsCacheBus {
+
+    void publish(NewsCacheInvalidation invalidation);
+
+    void subscribe(Consumer<NewsCacheInvalidation> listener);
+}
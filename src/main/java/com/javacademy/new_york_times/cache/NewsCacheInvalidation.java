@@ -0,0 +1,18 @@
+package com.javacademy.new_york_times.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Сообщение о том, что запись кэша {@code cacheName} изменилась на узле {@code node}.
+ * Если {@code key} не задан, изменился весь кэш.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class NewsCacheInvalidation {
+    private final String node;
+    private final String cacheName;
+    private final Object key;
+}
@@ -0,0 +1,139 @@
+package com.javacademy.new_york_times.cache;
+
+import com.javacademy.new_york_times.config.NewsPageProperties;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import com.javacademy.new_york_times.mapper.NewsMapper;
+import com.javacademy.new_york_times.repository.CachedNewsStore;
+import com.javacademy.new_york_times.repository.NewsStoreListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_ID;
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_PAGE;
+
+/**
+ * Поддерживает кэши в актуальном состоянии после записей.
+ * Измененная новость сразу кладется в {@code news_by_id}, удаленная - убирается из него.
+ * Из {@code news_by_page} сбрасываются только те страницы, которые затронула запись.
+ * Изменение новости трогает одну ее страницу, добавление и удаление - ее страницу и все следующие,
+ * потому что позиции новостей после нее сдвигаются. Если при этом поменялось число страниц,
+ * сбрасываются все страницы: поле {@code countPages} есть в каждой из них.
+ * Страницы сбрасываются из {@link NewsStoreListener} под блокировкой записи хранилища, поэтому число новостей
+ * до и после записи точное даже при параллельных добавлениях и удалениях.
+ */
+@Component
+public class NewsCacheInvalidator implements NewsStoreListener {
+    private final CachedNewsStore newsStore;
+    private final NewsPageProperties pageProperties;
+    private final NewsMapper newsMapper;
+    private final Cache idCache;
+    private final Cache pageCache;
+    private final Counter pageEvictions;
+    private final Counter fullEvictions;
+
+    public NewsCacheInvalidator(CachedNewsStore newsStore, NewsPageProperties pageProperties, NewsMapper newsMapper,
+                                CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.newsStore = newsStore;
+        this.pageProperties = pageProperties;
+        this.newsMapper = newsMapper;
+        this.idCache = Objects.requireNonNull(cacheManager.getCache(NEWS_BY_ID));
+        this.pageCache = Objects.requireNonNull(cacheManager.getCache(NEWS_BY_PAGE));
+        this.pageEvictions = Counter.builder("news.cache.invalidations")
+                .tag("cache", NEWS_BY_PAGE)
+                .tag("scope", "page")
+                .register(meterRegistry);
+        this.fullEvictions = Counter.builder("news.cache.invalidations")
+                .tag("cache", NEWS_BY_PAGE)
+                .tag("scope", "all")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        newsStore.addListener(this);
+    }
+
+    @Override
+    public void onSaved(NewsEntity entity) {
+        onSavedAll(List.of(entity));
+    }
+
+    /**
+     * Пакет сбрасывает кэш страниц один раз, начиная с самого раннего номера пакета.
+     */
+    @Override
+    public void onSavedAll(List<NewsEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        int count = newsStore.count();
+        int firstNumber = entities.stream().mapToInt(NewsEntity::getNumber).min().orElseThrow();
+        evictFrom(firstNumber, count - entities.size(), count);
+    }
+
+    @Override
+    public void onUpdated(NewsEntity entity) {
+        onUpdatedAll(List.of(entity));
+    }
+
+    /**
+     * Запись в {@code news_by_id} идет под блокировкой номера, поэтому два изменения одной новости
+     * попадают в кэш в том же порядке, что и в хранилище. Каждая затронутая страница сбрасывается один раз.
+     */
+    @Override
+    public void onUpdatedAll(List<NewsEntity> entities) {
+        entities.forEach(entity -> idCache.put(entity.getNumber(), newsMapper.toDto(entity)));
+        entities.stream()
+                .map(entity -> pageOf(entity.getNumber()))
+                .distinct()
+                .forEach(page -> {
+                    pageCache.evict(page);
+                    pageEvictions.increment();
+                });
+    }
+
+    @Override
+    public void onDeleted(Integer number) {
+        onDeletedAll(List.of(number));
+    }
+
+    /**
+     * Пакет сбрасывает кэш страниц один раз, начиная с самого раннего удаленного номера.
+     */
+    @Override
+    public void onDeletedAll(List<Integer> numbers) {
+        numbers.forEach(idCache::evict);
+        int count = newsStore.count();
+        int firstNumber = numbers.stream().mapToInt(Integer::intValue).min().orElseThrow();
+        evictFrom(firstNumber, count + numbers.size(), count);
+    }
+
+    private void evictFrom(Integer number, int countBefore, int countAfter) {
+        int pagesBefore = pages(countBefore);
+        int pagesAfter = pages(countAfter);
+        if (pagesBefore != pagesAfter) {
+            pageCache.clear();
+            fullEvictions.increment();
+            return;
+        }
+        for (int page = pageOf(number); page < pagesAfter; page++) {
+            pageCache.evict(page);
+            pageEvictions.increment();
+        }
+    }
+
+    private int pageOf(Integer number) {
+        return newsStore.countBefore(number) / pageProperties.getSize();
+    }
+
+    private int pages(int count) {
+        return (int) Math.ceil(count * 1.00 / pageProperties.getSize());
+    }
+}
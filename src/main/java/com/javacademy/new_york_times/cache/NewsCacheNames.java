@@ -0,0 +1,9 @@
+package com.javacademy.new_york_times.cache;
+
+public final class NewsCacheNames {
+    public static final String NEWS_BY_ID = "news_by_id";
+    public static final String NEWS_BY_PAGE = "news_by_page";
+
+    private NewsCacheNames() {
+    }
+}
@@ -0,0 +1,66 @@
+package com.javacademy.new_york_times.cache;
+
+import com.javacademy.new_york_times.config.NewsPageProperties;
+import com.javacademy.new_york_times.dto.NewsDto;
+import com.javacademy.new_york_times.dto.NewsPageDto;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import com.javacademy.new_york_times.repository.CachedNewsStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_ID;
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_PAGE;
+
+/**
+ * Сверяет значения из общего уровня кэша с хранилищем узла: новость годится, только если совпадают ревизия
+ * и все поля. Хранилище каждого узла загружается один раз и не видит записей других узлов, поэтому версия,
+ * записанная в L2 другим узлом, несет чужую ревизию: отдав ее, узел получил бы 412 на свой же условный PATCH.
+ * Ревизии - это время записи в миллисекундах, и у разных узлов они могут совпасть, поэтому сверяются и поля.
+ * Страница годится, только если совпадает число страниц и каждая новость на ней.
+ */
+@Component
+@RequiredArgsConstructor
+public class NewsRevisionCheck implements SharedEntryCheck {
+    private final CachedNewsStore newsStore;
+    private final NewsPageProperties pageProperties;
+
+    @Override
+    public boolean isCurrent(String cacheName, Object key, Object value) {
+        return switch (cacheName) {
+            case NEWS_BY_ID -> value instanceof NewsDto dto
+                    && newsStore.findByNumber((Integer) key).filter(entity -> isSame(entity, dto)).isPresent();
+            case NEWS_BY_PAGE -> value instanceof NewsPageDto<?> page && isCurrentPage((Integer) key, page);
+            default -> true;
+        };
+    }
+
+    private boolean isCurrentPage(int pageNumber, NewsPageDto<?> page) {
+        int pageSize = pageProperties.getSize();
+        int totalPages = (int) Math.ceil(newsStore.count() * 1.00 / pageSize);
+        if (!Objects.equals(page.getCountPages(), totalPages)) {
+            return false;
+        }
+        List<NewsEntity> entities = newsStore.findPage(pageSize * pageNumber, pageSize);
+        List<?> content = page.getContent();
+        if (content.size() != entities.size()) {
+            return false;
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            if (!(content.get(i) instanceof NewsDto dto) || !isSame(entities.get(i), dto)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSame(NewsEntity entity, NewsDto dto) {
+        return Objects.equals(entity.getNumber(), dto.getNumber())
+                && Objects.equals(entity.getRevision(), dto.getRevision())
+                && Objects.equals(entity.getTitle(), dto.getTitle())
+                && Objects.equals(entity.getText(), dto.getText())
+                && Objects.equals(entity.getAuthor(), dto.getAuthor());
+    }
+}
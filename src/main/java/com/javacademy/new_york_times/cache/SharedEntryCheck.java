@@ -0,0 +1,13 @@
+package com.javacademy.new_york_times.cache;
+
+/**
+ * Проверка значения из общего уровня {@link TwoLevelCache} перед тем, как узел его отдаст.
+ */
+@FunctionalInterface
+public interface SharedEntryCheck {
+
+    /**
+     * @return true, если {@code value} совпадает с тем, что узел прочитал бы из своего хранилища
+     */
+    boolean isCurrent(String cacheName, Object key, Object value);
+}
@@ -0,0 +1,17 @@
+package com.javacademy.new_york_times.cache;
+
+/**
+ * Общий для всех узлов уровень кэша (L2), например Redis или Hazelcast.
+ * Значения одного кэша разделяются по {@code cacheName}. Реализация сама отвечает за срок жизни записей,
+ * он должен быть не короче, чем у локального уровня.
+ */
+public interface SharedNewsCache {
+
+    Object get(String cacheName, Object key);
+
+    void put(String cacheName, Object key, Object value);
+
+    void evict(String cacheName, Object key);
+
+    void clear(String cacheName);
+}
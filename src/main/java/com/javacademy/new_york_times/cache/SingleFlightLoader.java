@@ -0,0 +1,61 @@
+package com.javacademy.new_york_times.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Склеивает одновременные загрузки одного и того же ключа: первый промах запускает загрузку,
+ * остальные ждут тот же {@link CompletableFuture} и получают ее результат или исключение.
+ * Счетчик {@code news.singleflight.calls} показывает, сколько вызовов загрузили значение сами,
+ * а сколько дождались чужой загрузки.
+ */
+@Component
+@RequiredArgsConstructor
+public class SingleFlightLoader {
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @SuppressWarnings("unchecked")
+    public <T> T load(String cacheName, Object key, Supplier<T> loader) {
+        List<Object> flightKey = List.of(cacheName, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            meterRegistry.counter("news.singleflight.calls", "cache", cacheName, "result", "coalesced").increment();
+            return (T) await(existing);
+        }
+        meterRegistry.counter("news.singleflight.calls", "cache", cacheName, "result", "loaded").increment();
+        try {
+            T value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
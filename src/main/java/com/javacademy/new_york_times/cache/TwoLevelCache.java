@@ -0,0 +1,179 @@
+package com.javacademy.new_york_times.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Кэш из двух уровней: локальный Caffeine (L1) и общий для узлов {@link SharedNewsCache} (L2).
+ * В L2 попадают только значения, записанные через {@link #put} узлом, который сам выполнил запись
+ * в хранилище. Загрузки после промаха ложатся лишь в L1.
+ * Промах L1 идет в L2, и значение оттуда отдается и копируется в L1, только если его принимает
+ * {@link SharedEntryCheck}: хранилище каждого узла загружается один раз и не видит записей других узлов,
+ * поэтому чужая версия отдается, лишь когда совпадает со своей, а иначе это промах.
+ * Запись и сброс идут в оба уровня и рассылаются остальным узлам через {@link NewsCacheBus},
+ * те сбрасывают свою копию в L1 и при следующем чтении сверяют с хранилищем версию из L2.
+ * {@link #getNativeCache()} отдает кэш L1, чтобы работали тихие чтения и оценка популярности Caffeine.
+ */
+public class TwoLevelCache implements Cache {
+    private final CaffeineCache local;
+    private final SharedNewsCache shared;
+    private final NewsCacheBus bus;
+    private final SharedEntryCheck check;
+    private final String node;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+    private final Counter sharedStale;
+
+    public TwoLevelCache(CaffeineCache local, SharedNewsCache shared, NewsCacheBus bus, SharedEntryCheck check,
+                         String node, MeterRegistry meterRegistry) {
+        this.local = local;
+        this.shared = shared;
+        this.bus = bus;
+        this.check = check;
+        this.node = node;
+        this.sharedHits = sharedCounter(meterRegistry, local.getName(), "hit");
+        this.sharedMisses = sharedCounter(meterRegistry, local.getName(), "miss");
+        this.sharedStale = sharedCounter(meterRegistry, local.getName(), "stale");
+    }
+
+    public CaffeineCache getLocalCache() {
+        return local;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<Object, Object> getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = local.get(key);
+        if (wrapper != null) {
+            return wrapper;
+        }
+        Object value = getShared(key);
+        return value == null ? null : new SimpleValueWrapper(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        T value = local.get(key, type);
+        if (value != null) {
+            return value;
+        }
+        Object sharedValue = getShared(key);
+        if (sharedValue != null && type != null && !type.isInstance(sharedValue)) {
+            throw new IllegalStateException("Cached value is not of required type [%s]: %s"
+                    .formatted(type.getName(), sharedValue));
+        }
+        return type == null ? (T) sharedValue : type.cast(sharedValue);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        ValueWrapper existing = putIfAbsent(key, value);
+        return existing == null ? value : (T) existing.get();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(key, value);
+        shared.put(getName(), key, value);
+        bus.publish(new NewsCacheInvalidation(node, getName(), key));
+    }
+
+    /**
+     * Кладет значение, загруженное после промаха, только в L1: оно прочитано из хранилища этого узла.
+     */
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object existing = local.getNativeCache().asMap().putIfAbsent(key, value);
+        return existing == null ? null : new SimpleValueWrapper(existing);
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.evict(key);
+        shared.evict(getName(), key);
+        bus.publish(new NewsCacheInvalidation(node, getName(), key));
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        shared.clear(getName());
+        bus.publish(new NewsCacheInvalidation(node, getName(), null));
+    }
+
+    /**
+     * Применяет инвалидацию, пришедшую с другого узла: сбрасывается только копия в L1.
+     */
+    void onInvalidation(NewsCacheInvalidation invalidation) {
+        if (node.equals(invalidation.getNode())) {
+            return;
+        }
+        if (invalidation.getKey() == null) {
+            local.clear();
+        } else {
+            local.evict(invalidation.getKey());
+        }
+    }
+
+    private Object getShared(Object key) {
+        Object value = shared.get(getName(), key);
+        if (value == null) {
+            sharedMisses.increment();
+            return null;
+        }
+        if (!check.isCurrent(getName(), key, value)) {
+            sharedStale.increment();
+            return null;
+        }
+        sharedHits.increment();
+        copyToLocal(key, value);
+        return value;
+    }
+
+    /**
+     * Кладет значение из L2 в L1 и перепроверяет его по хранилищу: если узел успел изменить новость
+     * и сбросить L1 до того, как копия туда попала, копия сразу убирается.
+     */
+    private void copyToLocal(Object key, Object value) {
+        Map<Object, Object> localMap = local.getNativeCache().asMap();
+        localMap.putIfAbsent(key, value);
+        if (!check.isCurrent(getName(), key, value)) {
+            localMap.remove(key, value);
+        }
+    }
+
+    private static Counter sharedCounter(MeterRegistry meterRegistry, String cacheName, String result) {
+        return Counter.builder("news.cache.shared")
+                .description("Обращения к общему уровню кэша после промаха локального")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,53 @@
+package com.javacademy.new_york_times.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Оборачивает кэши {@link CaffeineCacheManager} в {@link TwoLevelCache} с общими L2, каналом инвалидации
+ * и проверкой значений из L2.
+ * Узел подписывается на канал один раз и раздает сообщения своим кэшам по имени.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+    private final CaffeineCacheManager localCacheManager;
+    private final SharedNewsCache sharedCache;
+    private final NewsCacheBus bus;
+    private final SharedEntryCheck check;
+    private final String node;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CaffeineCacheManager localCacheManager, SharedNewsCache sharedCache,
+                                NewsCacheBus bus, SharedEntryCheck check, String node, MeterRegistry meterRegistry) {
+        this.localCacheManager = localCacheManager;
+        this.sharedCache = sharedCache;
+        this.bus = bus;
+        this.check = check;
+        this.node = node;
+        this.meterRegistry = meterRegistry;
+        bus.subscribe(invalidation -> {
+            TwoLevelCache cache = caches.get(invalidation.getCacheName());
+            if (cache != null) {
+                cache.onInvalidation(invalidation);
+            }
+        });
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> new TwoLevelCache(
+                (CaffeineCache) localCacheManager.getCache(cacheName), sharedCache, bus, check, node, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return localCacheManager.getCacheNames();
+    }
+}
@@ -0,0 +1,372 @@
+package com.javacademy.new_york_times.changes;
+
+import com.javacademy.new_york_times.config.NewsChangesProperties;
+import com.javacademy.new_york_times.dto.NewsChangeDto;
+import com.javacademy.new_york_times.dto.NewsChangeType;
+import com.javacademy.new_york_times.dto.NewsChangesDto;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import com.javacademy.new_york_times.exception.NewsChangesExpiredException;
+import com.javacademy.new_york_times.mapper.NewsMapper;
+import com.javacademy.new_york_times.repository.CachedNewsStore;
+import com.javacademy.new_york_times.repository.NewsStoreListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.javacademy.new_york_times.service.NewsErrorType.NEWS_CHANGES_EXPIRED;
+
+/**
+ * Журнал изменений новостей для ленты {@code GET /news/changes}.
+ * Хранилище сообщает о записи под той же блокировкой, под которой ее применяет, поэтому события одной новости
+ * идут в журнале в порядке записей. События получают номера подряд, начиная с 1, и лежат в кольцевом буфере
+ * на {@code news.changes.capacity} штук. Вытесненные события дописываются в {@code news.changes.spill-file},
+ * если он задан; файл очищается при старте, номера событий действуют в пределах одного запуска.
+ * Файл пишет отдельный поток, чтобы запись на диск не шла под блокировкой хранилища; все состояние файла
+ * принадлежит этому потоку. Для чтения из файла журнал помнит смещение каждого {@value #SPILL_STRIDE}-го события,
+ * а читатель ставит в очередь того же потока сброс на диск и получает отметку и длину сброшенной части:
+ * к этому моменту записаны все события, вытесненные до чтения, и недописанной строки читатель не видит.
+ * Читатель, который ждет новых событий, не держит поток: ожидание - это свой {@link CompletableFuture},
+ * который завершает следующая запись или таймаут; по таймауту ожидание убирается из журнала.
+ */
+@Slf4j
+@Component
+public class NewsChangeLog implements NewsStoreListener {
+    private static final long FIRST_SEQUENCE = 1;
+    private static final int SPILL_STRIDE = 64;
+    private static final int INITIAL_CHECKPOINTS = 16;
+
+    private final CachedNewsStore newsStore;
+    private final NewsMapper newsMapper;
+    private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final NewsChangeDto[] ring;
+    private final Path spillFile;
+    private final Set<CompletableFuture<Void>> waiters = new HashSet<>();
+    private ExecutorService spillWriter;
+    private OutputStream spill;
+    private long spilledEvents;
+    private long spilledBytes;
+    private long[] spillCheckpoints = new long[INITIAL_CHECKPOINTS];
+    private long nextSequence = FIRST_SEQUENCE;
+
+    public NewsChangeLog(CachedNewsStore newsStore, NewsMapper newsMapper, ObjectMapper objectMapper,
+                         AsyncTaskExecutor applicationTaskExecutor, NewsChangesProperties properties) {
+        this.newsStore = newsStore;
+        this.newsMapper = newsMapper;
+        this.objectMapper = objectMapper;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.ring = new NewsChangeDto[properties.getCapacity()];
+        this.spillFile = StringUtils.hasText(properties.getSpillFile()) ? Path.of(properties.getSpillFile()) : null;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (spillFile != null) {
+            Path directory = spillFile.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            spill = new BufferedOutputStream(Files.newOutputStream(spillFile));
+            spillWriter = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("news-changes-spill-"));
+        }
+        newsStore.addListener(this);
+    }
+
+    /**
+     * Дописывает в файл уже вытесненные события и закрывает его.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        ExecutorService writer;
+        synchronized (this) {
+            writer = spillWriter;
+            spillWriter = null;
+        }
+        if (writer != null) {
+            writer.execute(() -> {
+                if (spill != null) {
+                    closeQuietly();
+                }
+            });
+            writer.shutdown();
+            writer.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @Override
+    public void onSaved(NewsEntity entity) {
+        onSavedAll(List.of(entity));
+    }
+
+    @Override
+    public void onSavedAll(List<NewsEntity> entities) {
+        append(changes(NewsChangeType.CREATED, entities));
+    }
+
+    @Override
+    public void onUpdated(NewsEntity entity) {
+        onUpdatedAll(List.of(entity));
+    }
+
+    @Override
+    public void onUpdatedAll(List<NewsEntity> entities) {
+        append(changes(NewsChangeType.UPDATED, entities));
+    }
+
+    @Override
+    public void onDeleted(Integer number) {
+        onDeletedAll(List.of(number));
+    }
+
+    @Override
+    public void onDeletedAll(List<Integer> numbers) {
+        append(numbers.stream()
+                .map(number -> NewsChangeDto.builder()
+                        .type(NewsChangeType.DELETED)
+                        .number(number)
+                        .build())
+                .toList());
+    }
+
+    /**
+     * События с номером больше {@code since}, не больше {@code limit} штук.
+     * Если таких пока нет, ответ приходит с первым новым событием либо пустым по истечении {@code wait}.
+     *
+     * @throws NewsChangesExpiredException если событий после {@code since} в журнале уже или еще нет
+     */
+    public CompletableFuture<NewsChangesDto> changesAfter(long since, int limit, Duration wait) {
+        CompletableFuture<Void> signal = new CompletableFuture<>();
+        synchronized (this) {
+            waiters.add(signal);
+        }
+        NewsChangesDto current;
+        try {
+            current = read(since, limit);
+        } catch (RuntimeException ex) {
+            forget(signal);
+            throw ex;
+        }
+        if (!current.getChanges().isEmpty() || wait.isZero() || wait.isNegative()) {
+            forget(signal);
+            return CompletableFuture.completedFuture(current);
+        }
+        return signal.completeOnTimeout(null, wait.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, ex) -> forget(signal))
+                .thenApplyAsync(ignored -> read(since, limit), applicationTaskExecutor);
+    }
+
+    synchronized int waiting() {
+        return waiters.size();
+    }
+
+    private synchronized void forget(CompletableFuture<Void> signal) {
+        waiters.remove(signal);
+    }
+
+    private List<NewsChangeDto> changes(NewsChangeType type, List<NewsEntity> entities) {
+        return entities.stream()
+                .map(entity -> NewsChangeDto.builder()
+                        .type(type)
+                        .number(entity.getNumber())
+                        .revision(entity.getRevision())
+                        .news(newsMapper.toDto(entity))
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Выдает событиям пакета номера подряд, отдает вытесненные события потоку записи в файл
+     * и будит ожидающих читателей один раз на пакет.
+     */
+    private void append(List<NewsChangeDto> changes) {
+        List<CompletableFuture<Void>> signals;
+        synchronized (this) {
+            List<NewsChangeDto> evicted = new ArrayList<>();
+            for (NewsChangeDto change : changes) {
+                long sequence = nextSequence++;
+                int slot = slot(sequence);
+                if (ring[slot] != null) {
+                    evicted.add(ring[slot]);
+                }
+                change.setSequence(sequence);
+                ring[slot] = change;
+            }
+            if (spillWriter != null && !evicted.isEmpty()) {
+                spillWriter.execute(() -> evicted.forEach(this::spill));
+            }
+            signals = new ArrayList<>(waiters);
+            waiters.clear();
+        }
+        signals.forEach(signal -> signal.complete(null));
+    }
+
+    /**
+     * Пишет вытесненное событие в файл, работает в потоке записи. При ошибке запись в файл отключается,
+     * и читатели, отставшие дальше буфера, получают {@link NewsChangesExpiredException}.
+     */
+    private void spill(NewsChangeDto change) {
+        if (spill == null) {
+            return;
+        }
+        try {
+            byte[] line = line(change);
+            if (spilledEvents % SPILL_STRIDE == 0) {
+                int checkpoint = (int) (spilledEvents / SPILL_STRIDE);
+                if (checkpoint == spillCheckpoints.length) {
+                    spillCheckpoints = Arrays.copyOf(spillCheckpoints, checkpoint * 2);
+                }
+                spillCheckpoints[checkpoint] = spilledBytes;
+            }
+            spill.write(line);
+            spilledEvents++;
+            spilledBytes += line.length;
+        } catch (IOException ex) {
+            log.warn("Не удалось записать событие {} в {}, запись в файл отключена",
+                    change.getSequence(), spillFile, ex);
+            closeQuietly();
+        }
+    }
+
+    private NewsChangesDto read(long since, int limit) {
+        long head;
+        long oldest;
+        CompletableFuture<SpillRange> flushed;
+        synchronized (this) {
+            head = nextSequence - 1;
+            if (since < 0 || since > head) {
+                throw new NewsChangesExpiredException(NEWS_CHANGES_EXPIRED);
+            }
+            oldest = Math.max(FIRST_SEQUENCE, nextSequence - ring.length);
+            if (since + 1 >= oldest) {
+                List<NewsChangeDto> changes = new ArrayList<>();
+                for (long sequence = since + 1; sequence <= head && changes.size() < limit; sequence++) {
+                    changes.add(ring[slot(sequence)]);
+                }
+                return changes(changes, since, head);
+            }
+            if (spillWriter == null) {
+                throw new NewsChangesExpiredException(NEWS_CHANGES_EXPIRED);
+            }
+            flushed = CompletableFuture.supplyAsync(() -> flushSpill(since), spillWriter);
+        }
+        SpillRange range = flushed.join();
+        if (range == null) {
+            throw new NewsChangesExpiredException(NEWS_CHANGES_EXPIRED);
+        }
+        List<NewsChangeDto> changes = readSpill(since, limit, oldest, range.getFrom(), range.getTo());
+        if (changes.isEmpty() || changes.get(0).getSequence() != since + 1) {
+            throw new NewsChangesExpiredException(NEWS_CHANGES_EXPIRED);
+        }
+        return changes(changes, since, head);
+    }
+
+    /**
+     * Читает файл без блокировки с отметки {@code from} до {@code to}: эта часть уже сброшена на диск
+     * и больше не меняется, а запись в конец файла может идти параллельно.
+     */
+    private List<NewsChangeDto> readSpill(long since, int limit, long before, long from, long to) {
+        List<NewsChangeDto> changes = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     Channels.newInputStream(channel.position(from)), StandardCharsets.UTF_8))) {
+            long position = from;
+            String line;
+            while (changes.size() < limit && (line = reader.readLine()) != null) {
+                position += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (position > to) {
+                    break;
+                }
+                NewsChangeDto change = objectMapper.readValue(line, NewsChangeDto.class);
+                if (change.getSequence() >= before) {
+                    break;
+                }
+                if (change.getSequence() > since) {
+                    changes.add(change);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return changes;
+    }
+
+    /**
+     * Сбрасывает файл на диск в потоке записи и возвращает отметку, с которой читать события после {@code since},
+     * и длину сброшенной части; {@code null}, если запись в файл отключена.
+     */
+    private SpillRange flushSpill(long since) {
+        if (spill == null) {
+            return null;
+        }
+        try {
+            spill.flush();
+            return new SpillRange(spillCheckpoints[(int) (since / SPILL_STRIDE)], spilledBytes);
+        } catch (IOException ex) {
+            log.warn("Не удалось сбросить {} на диск, запись в файл отключена", spillFile, ex);
+            closeQuietly();
+            return null;
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            spill.close();
+        } catch (IOException ex) {
+            log.debug("Не удалось закрыть {}", spillFile, ex);
+        }
+        spill = null;
+    }
+
+    private byte[] line(NewsChangeDto change) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(change);
+        byte[] line = Arrays.copyOf(json, json.length + 1);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+
+    private static NewsChangesDto changes(List<NewsChangeDto> changes, long since, long head) {
+        long last = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+        return new NewsChangesDto(changes, last, head);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class SpillRange {
+        private final long from;
+        private final long to;
+    }
+}
@@ -0,0 +1,55 @@
+package com.javacademy.new_york_times.config;
+
+import com.javacademy.new_york_times.cache.InProcessNewsCacheBus;
+import com.javacademy.new_york_times.cache.InProcessSharedNewsCache;
+import com.javacademy.new_york_times.cache.NewsCacheBus;
+import com.javacademy.new_york_times.cache.SharedEntryCheck;
+import com.javacademy.new_york_times.cache.SharedNewsCache;
+import com.javacademy.new_york_times.cache.TwoLevelCache;
+import com.javacademy.new_york_times.cache.TwoLevelCacheManager;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.UUID;
+
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Локальные кэши Caffeine. С {@code news.cache.shared-enabled} они становятся первым уровнем
+     * {@link TwoLevelCache}: вторым уровнем и каналом инвалидации служат бины {@link SharedNewsCache}
+     * и {@link NewsCacheBus}, а если их нет - заглушки в памяти процесса. Значения из второго уровня
+     * сверяются с хранилищем узла через {@link SharedEntryCheck}.
+     */
+    @Bean
+    public CacheManager cacheManager(NewsCacheProperties properties, ObjectProvider<SharedNewsCache> sharedCache,
+                                     ObjectProvider<NewsCacheBus> cacheBus, SharedEntryCheck sharedEntryCheck,
+                                     MeterRegistry meterRegistry) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheSpecification(properties.getDefaultSpec());
+        properties.getSpecs().forEach((name, spec) -> cacheManager.registerCustomCache(name,
+                Caffeine.from(spec).build()));
+        if (!properties.isSharedEnabled()) {
+            return cacheManager;
+        }
+        String node = StringUtils.hasText(properties.getNode()) ? properties.getNode() : UUID.randomUUID().toString();
+        return new TwoLevelCacheManager(cacheManager, sharedCache.getIfAvailable(InProcessSharedNewsCache::new),
+                cacheBus.getIfAvailable(InProcessNewsCacheBus::new), sharedEntryCheck, node, meterRegistry);
+    }
+
+    /**
+     * Метрики {@code cache.*} для {@link TwoLevelCache} снимаются с его локального уровня.
+     */
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.getNativeCache(), cache.getName(), tags);
+    }
+}
@@ -0,0 +1,50 @@
+package com.javacademy.new_york_times.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Ограничение частоты запросов на клиента и числа одновременных записей в хранилище.
+ */
+@Data
+@ConfigurationProperties(prefix = "news.admission")
+public class NewsAdmissionProperties {
+    private static final double DEFAULT_RATE = 50;
+    private static final int DEFAULT_BURST = 100;
+    private static final int DEFAULT_MAX_CLIENTS = 100_000;
+    private static final long DEFAULT_CLIENT_IDLE_MINUTES = 10;
+    private static final int DEFAULT_MAX_CONCURRENT_WRITES = 16;
+
+    private boolean enabled = true;
+    /**
+     * Заголовок с ключом клиента, который выставляет доверенный шлюз после аутентификации, затирая присланный
+     * клиентом. Задается только за таким шлюзом: иначе клиент обходит ограничение, меняя значение заголовка.
+     * Если заголовок не задан или отсутствует, клиентом считается его адрес. За балансировщиком адрес берется
+     * из {@code X-Forwarded-For}, если включить {@code server.forward-headers-strategy=native} и перечислить
+     * адреса балансировщиков в {@code server.tomcat.remoteip.internal-proxies}: без этого списка Tomcat
+     * доверяет заголовку от любого адреса из частных сетей, и такой клиент подменит свой адрес.
+     */
+    private String clientHeader;
+    /**
+     * Сколько запросов в секунду в среднем разрешено одному клиенту.
+     */
+    private double ratePerSecond = DEFAULT_RATE;
+    /**
+     * Сколько запросов клиент может сделать подряд после простоя.
+     */
+    private int burst = DEFAULT_BURST;
+    /**
+     * Сколько клиентов помнить одновременно, самые давние забываются первыми.
+     */
+    private int maxClients = DEFAULT_MAX_CLIENTS;
+    /**
+     * Через сколько без запросов корзина клиента забывается.
+     */
+    private Duration clientIdleTimeout = Duration.ofMinutes(DEFAULT_CLIENT_IDLE_MINUTES);
+    /**
+     * Сколько запросов на изменение могут одновременно ждать хранилище или работать с ним, остальным сразу 503.
+     */
+    private int maxConcurrentWrites = DEFAULT_MAX_CONCURRENT_WRITES;
+}
@@ -0,0 +1,29 @@
+package com.javacademy.new_york_times.config;
+
+import com.javacademy.new_york_times.repository.FileNewsBackend;
+import com.javacademy.new_york_times.repository.NewsBackend;
+import com.javacademy.new_york_times.repository.NewsRepository;
+import com.javacademy.new_york_times.repository.RepositoryNewsBackend;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class NewsBackendConfig {
+
+    /**
+     * При первом запуске с {@code news.persistence.enabled=true} журнал заполняется новостями
+     * из {@link NewsRepository}, дальше источник правды - журнал.
+     */
+    @Bean
+    public NewsBackend newsBackend(NewsPersistenceProperties properties, NewsRepository newsRepository)
+            throws IOException {
+        if (!properties.isEnabled()) {
+            return new RepositoryNewsBackend(newsRepository);
+        }
+        return FileNewsBackend.open(Path.of(properties.getDirectory()), newsRepository::findAll,
+                properties.isSyncWrites(), properties.getCompactThreshold().toBytes());
+    }
+}
@@ -0,0 +1,62 @@
+package com.javacademy.new_york_times.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Настройки кэшей в формате {@link com.github.benmanes.caffeine.cache.CaffeineSpec},
+ * их прогрева при старте и фонового обновления.
+ */
+@Data
+@ConfigurationProperties(prefix = "news.cache")
+public class NewsCacheProperties {
+    private static final int DEFAULT_WARMUP_NEWS = 10_000;
+    private static final int DEFAULT_WARMUP_PAGES = 10;
+    private static final int DEFAULT_REFRESH_HOT_KEYS = 100;
+    private static final int DEFAULT_RESPONSE_MAX_SIZE = 10_000;
+
+    /**
+     * Спецификация для кэшей, которые не перечислены в {@code specs}.
+     */
+    private String defaultSpec = "maximumSize=1000,expireAfterWrite=10m,recordStats";
+    /**
+     * Спецификация по имени кэша.
+     */
+    private Map<String, String> specs = new LinkedHashMap<>();
+    /**
+     * Прогревать кэши до того, как сервис объявит себя готовым принимать трафик.
+     */
+    private boolean warmupEnabled = true;
+    /**
+     * Сколько новостей с начала положить в {@code news_by_id} при прогреве.
+     */
+    private int warmupNews = DEFAULT_WARMUP_NEWS;
+    /**
+     * Сколько первых страниц положить в {@code news_by_page} при прогреве.
+     */
+    private int warmupPages = DEFAULT_WARMUP_PAGES;
+    /**
+     * Как часто перечитывать самые популярные записи кэшей. Должно быть меньше их {@code expireAfterWrite}.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+    /**
+     * Сколько самых популярных записей каждого кэша перечитывать, 0 выключает обновление.
+     */
+    private int refreshHotKeys = DEFAULT_REFRESH_HOT_KEYS;
+    /**
+     * Держать за локальными кэшами общий для всех узлов уровень и рассылать узлам инвалидации.
+     */
+    private boolean sharedEnabled;
+    /**
+     * Имя узла в сообщениях инвалидации, по умолчанию случайное при каждом запуске.
+     */
+    private String node;
+    /**
+     * Сколько готовых тел ответов (JSON и gzip) держать в памяти.
+     */
+    private int responseMaxSize = DEFAULT_RESPONSE_MAX_SIZE;
+}
@@ -0,0 +1,40 @@
+package com.javacademy.new_york_times.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Журнал изменений для {@code GET /news/changes}.
+ */
+@Data
+@ConfigurationProperties(prefix = "news.changes")
+public class NewsChangesProperties {
+    private static final int DEFAULT_CAPACITY = 10_000;
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int DEFAULT_MAX_LIMIT = 1000;
+    private static final long DEFAULT_MAX_WAIT_SECONDS = 25;
+
+    /**
+     * Сколько последних событий держится в памяти.
+     */
+    private int capacity = DEFAULT_CAPACITY;
+    /**
+     * Размер порции, если {@code limit} не передан.
+     */
+    private int defaultLimit = DEFAULT_LIMIT;
+    /**
+     * Верхняя граница {@code limit}, большие значения урезаются до нее.
+     */
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+    /**
+     * Сколько ждать новых событий, если {@code wait} не передан, и верхняя граница {@code wait}.
+     * Должно быть меньше {@code spring.mvc.async.request-timeout}.
+     */
+    private Duration maxWait = Duration.ofSeconds(DEFAULT_MAX_WAIT_SECONDS);
+    /**
+     * Файл, куда дописываются вытесненные из памяти события. Если не задан, старые события теряются.
+     */
+    private String spillFile;
+}
@@ -0,0 +1,24 @@
+package com.javacademy.new_york_times.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "news.page")
+public class NewsPageProperties {
+    private static final int DEFAULT_SIZE = 10;
+    private static final int DEFAULT_MAX_LIMIT = 100;
+
+    /**
+     * Размер страницы для {@code GET /news?page=N}.
+     */
+    private int size = DEFAULT_SIZE;
+    /**
+     * Размер выборки для {@code GET /news?after=X}, если {@code limit} не передан.
+     */
+    private int defaultLimit = DEFAULT_SIZE;
+    /**
+     * Верхняя граница {@code limit}, большие значения урезаются до нее.
+     */
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+}
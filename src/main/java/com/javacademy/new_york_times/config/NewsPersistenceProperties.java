@@ -0,0 +1,31 @@
+package com.javacademy.new_york_times.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Хранение новостей на диске через {@link com.javacademy.new_york_times.repository.FileNewsBackend}.
+ */
+@Data
+@ConfigurationProperties(prefix = "news.persistence")
+public class NewsPersistenceProperties {
+    private static final long DEFAULT_COMPACT_THRESHOLD_MB = 16;
+
+    /**
+     * Если выключено, новости живут только в {@link com.javacademy.new_york_times.repository.NewsRepository}.
+     */
+    private boolean enabled;
+    /**
+     * Каталог журнала и индекса.
+     */
+    private String directory = "data";
+    /**
+     * Сбрасывать журнал на диск после каждой записи.
+     */
+    private boolean syncWrites = true;
+    /**
+     * Сколько мертвых байт должно накопиться в журнале, прежде чем его можно сжать.
+     */
+    private DataSize compactThreshold = DataSize.ofMegabytes(DEFAULT_COMPACT_THRESHOLD_MB);
+}
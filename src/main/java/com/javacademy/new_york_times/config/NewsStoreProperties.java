@@ -0,0 +1,16 @@
+package com.javacademy.new_york_times.config;
+
+import com.javacademy.new_york_times.repository.NewsStoreConcurrency;
+import com.javacademy.new_york_times.repository.NewsStoreLayout;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "news.store")
+public class NewsStoreProperties {
+    private static final int DEFAULT_LOCK_STRIPES = 64;
+
+    private NewsStoreConcurrency concurrency = NewsStoreConcurrency.STRIPED;
+    private int lockStripes = DEFAULT_LOCK_STRIPES;
+    private NewsStoreLayout layout = NewsStoreLayout.ENTITY;
+}
@@ -0,0 +1,28 @@
+package com.javacademy.new_york_times.config;
+
+import lombok.Data;
+import org.slf4j.event.Level;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "news.tracing")
+public class NewsTracingProperties {
+    private static final double DEFAULT_SAMPLE_RATE = 0.01;
+    private static final int DEFAULT_MAX_ARGUMENT_LENGTH = 200;
+
+    private boolean enabled = true;
+    /**
+     * AspectJ-выражение, какие методы трассировать.
+     */
+    private String pointcut = "execution(public * com.javacademy.new_york_times.controller..*(..))"
+            + " || execution(public * com.javacademy.new_york_times.service..*(..))";
+    /**
+     * Доля вызовов, попадающих в лог, от 0 до 1.
+     */
+    private double sampleRate = DEFAULT_SAMPLE_RATE;
+    private Level level = Level.INFO;
+    /**
+     * Аргументы и результат длиннее этого обрезаются.
+     */
+    private int maxArgumentLength = DEFAULT_MAX_ARGUMENT_LENGTH;
+}
@@ -0,0 +1,33 @@
+package com.javacademy.new_york_times.config;
+
+import com.javacademy.new_york_times.logging.TracingInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+
+/**
+ * Советник создается на этапе пост-процессоров, поэтому настройки связываются прямо из {@link Environment},
+ * не поднимая раньше времени остальные бины.
+ */
+@Configuration
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+@ConditionalOnProperty(prefix = "news.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor tracingAdvisor(Environment environment) {
+        NewsTracingProperties properties = Binder.get(environment)
+                .bindOrCreate("news.tracing", NewsTracingProperties.class);
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(properties.getPointcut());
+        return new DefaultPointcutAdvisor(pointcut, new TracingInterceptor(properties));
+    }
+}
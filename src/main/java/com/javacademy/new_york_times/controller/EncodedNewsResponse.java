@@ -0,0 +1,16 @@
+package com.javacademy.new_york_times.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Готовое тело ответа: JSON, его gzip-вариант (если сжатие окупается) и ETag каждого из них.
+ */
+@Getter
+@AllArgsConstructor
+public class EncodedNewsResponse {
+    private final byte[] json;
+    private final byte[] gzip;
+    private final String eTag;
+    private final String gzipETag;
+}
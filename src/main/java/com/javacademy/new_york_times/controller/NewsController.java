@@ -1,37 +1,58 @@
 package com.javacademy.new_york_times.controller;
 
+import com.javacademy.new_york_times.dto.NewsAuthorDto;
+import com.javacademy.new_york_times.dto.NewsBatchResultDto;
+import com.javacademy.new_york_times.dto.NewsChangesDto;
+import com.javacademy.new_york_times.dto.NewsCursorPageDto;
 import com.javacademy.new_york_times.dto.NewsDto;
-import com.javacademy.new_york_times.dto.NewsPageDto;
+import com.javacademy.new_york_times.exception.NewsChangesExpiredException;
 import com.javacademy.new_york_times.exception.NewsNotFoundAuthorException;
 import com.javacademy.new_york_times.exception.NewsNotFoundException;
 import com.javacademy.new_york_times.exception.NewsNotFoundTextException;
+import com.javacademy.new_york_times.exception.NewsRevisionMismatchException;
 import com.javacademy.new_york_times.service.NewsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.javacademy.new_york_times.service.NewsErrorType.NEWS_REVISION_MISMATCH;
+import static com.javacademy.new_york_times.service.NewsErrorType.NEWS_SERVICE_BUSY;
 
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/news")
 public class NewsController {
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String GZIP = "gzip";
+
     private final NewsService newsService;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final NewsResponseEncoder responseEncoder;
 
     @PostMapping
-    @CacheEvict(value = "news_by_page", allEntries = true)
     public ResponseEntity<String> createNewsItem(@RequestBody NewsDto newsDto) {
         try {
             newsService.save(newsDto);
@@ -41,13 +62,22 @@ public class NewsController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<NewsBatchResultDto>> createNewsBatch(@RequestBody List<NewsDto> newsDtos) {
+        return ResponseEntity.ok(newsService.saveAll(newsDtos));
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<List<NewsBatchResultDto>> patchNewsBatch(@RequestBody List<NewsDto> newsDtos) {
+        return ResponseEntity.ok(newsService.patchAll(newsDtos));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<NewsBatchResultDto>> deleteNewsBatch(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(newsService.deleteAll(ids));
+    }
+
     @DeleteMapping("/{id}")
-    @Caching(
-            evict = {
-                    @CacheEvict(value = "news_by_id"),
-                    @CacheEvict(value = "news_by_page", allEntries = true)
-            }
-    )
     public ResponseEntity<Boolean> deleteNewsById(@PathVariable Integer id) {
         if (newsService.deleteByNumber(id)) {
             return ResponseEntity.ok(true);
@@ -56,53 +86,168 @@ public class NewsController {
     }
 
     @GetMapping("/{id}")
-    @Cacheable(value = "news_by_id")
-    public ResponseEntity<?> getNewsById(@PathVariable Integer id) {
-        try {
-            return ResponseEntity.ok(newsService.findByNumber(id));
-        } catch (NewsNotFoundException ex) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<?>> getNewsById(@PathVariable Integer id,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING,
+                                                                    required = false) String acceptEncoding) {
+        return async(() -> {
+            try {
+                NewsDto newsDto = newsService.findByNumber(id);
+                return encoded(ResponseEntity.ok().lastModified(newsDto.getRevision()),
+                        responseEncoder.encode(newsDto), acceptEncoding);
+            } catch (NewsNotFoundException ex) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+            }
+        });
     }
 
-    @GetMapping
-    @Cacheable(value = "news_by_page")
-    public ResponseEntity<NewsPageDto<NewsDto>> getNews(@RequestParam Integer page) {
-        return ResponseEntity.ok(newsService.findAll(page));
+    @GetMapping(params = {"page", "!author"})
+    public CompletableFuture<ResponseEntity<byte[]>> getNews(@RequestParam Integer page,
+                                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING,
+                                                                     required = false) String acceptEncoding) {
+        return async(() -> encoded(ResponseEntity.ok(), responseEncoder.encode(newsService.findAll(page)),
+                acceptEncoding));
     }
 
-    @PatchMapping("/{id}")
-    @Caching(
-            evict = {
-                    @CacheEvict(value = "news_by_id", key = "#id"),
-                    @CacheEvict(value = "news_by_page", allEntries = true)
+    @GetMapping(params = "author")
+    public CompletableFuture<ResponseEntity<?>> getNewsByAuthor(@RequestParam String author,
+                                                                @RequestParam(defaultValue = "0") Integer page) {
+        return async(() -> {
+            try {
+                return ResponseEntity.ok(newsService.findByAuthor(author, page));
+            } catch (NewsNotFoundException ex) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+            }
+        });
+    }
+
+    @GetMapping("/authors")
+    public CompletableFuture<ResponseEntity<List<NewsAuthorDto>>> getAuthors() {
+        return async(() -> ResponseEntity.ok(newsService.findAuthors()));
+    }
+
+    @GetMapping(params = {"!page", "!author"})
+    public CompletableFuture<ResponseEntity<NewsCursorPageDto<NewsDto>>> getNewsAfter(
+            @RequestParam(required = false) Integer after, @RequestParam(required = false) Integer limit) {
+        return async(() -> ResponseEntity.ok(newsService.findAfter(after, limit)));
+    }
+
+    @GetMapping("/search")
+    public CompletableFuture<ResponseEntity<?>> searchNews(@RequestParam(required = false) String q,
+                                                           @RequestParam(required = false) String author,
+                                                           @RequestParam(defaultValue = "0") Integer page) {
+        return async(() -> {
+            try {
+                return ResponseEntity.ok(newsService.search(q, author, page));
+            } catch (NewsNotFoundException ex) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
             }
-    )
-    public ResponseEntity<String> patchNews(@PathVariable Integer id, @RequestBody NewsDto newDto) {
+        });
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportNews(@RequestParam(required = false) Integer from,
+                                                            @RequestParam(required = false) Integer to) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> newsService.export(from, to, out));
+    }
+
+    /**
+     * Лента изменений: события после {@code since}. Если их пока нет, запрос ждет первого нового события
+     * до {@code wait} секунд, не занимая поток. Если журнал уже не помнит {@code since}, отвечает 410,
+     * и потребитель заново выгружает все новости через {@code /news/export}.
+     */
+    @GetMapping("/changes")
+    public CompletableFuture<ResponseEntity<NewsChangesDto>> getChanges(
+            @RequestParam(defaultValue = "0") Long since, @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer wait) {
+        return async(() -> newsService.findChanges(since, limit, wait))
+                .thenCompose(Function.identity())
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<String> patchNews(@PathVariable Integer id, @RequestBody NewsDto newDto,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                            String ifMatch) {
         try {
             NewsDto oldDto = newsService.findByNumber(id);
-            newsService.updateForPatch(oldDto, newDto);
-            return ResponseEntity.ok().body("Обновлено");
+            NewsDto updated;
+            if (ifMatch == null) {
+                updated = newsService.updateForPatch(oldDto, newDto);
+            } else if (NewsETags.matches(ifMatch, NewsETags.of(oldDto))) {
+                updated = newsService.updateForPatchIfUnchanged(oldDto, newDto);
+            } else {
+                throw new NewsRevisionMismatchException(NEWS_REVISION_MISMATCH);
+            }
+            return ResponseEntity.ok().eTag(NewsETags.of(updated)).body("Обновлено");
         } catch (NewsNotFoundException ex) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        } catch (NewsRevisionMismatchException ex) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
         }
     }
 
     @GetMapping("/{id}/text")
-    public ResponseEntity<String> getTextNewsById(@PathVariable Integer id) {
-        try {
-            return ResponseEntity.ok(newsService.getNewsText(id));
-        } catch (NewsNotFoundTextException ex) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<String>> getTextNewsById(@PathVariable Integer id) {
+        return async(() -> {
+            try {
+                return ResponseEntity.ok(newsService.getNewsText(id));
+            } catch (NewsNotFoundTextException ex) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+            }
+        });
     }
 
     @GetMapping("/{id}/author")
-    public ResponseEntity<String> getAuthorNewsById(@PathVariable Integer id) {
-        try {
-            return ResponseEntity.ok(newsService.getNewsAuthor(id));
-        } catch (NewsNotFoundAuthorException ex) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    public CompletableFuture<ResponseEntity<String>> getAuthorNewsById(@PathVariable Integer id) {
+        return async(() -> {
+            try {
+                return ResponseEntity.ok(newsService.getNewsAuthor(id));
+            } catch (NewsNotFoundAuthorException ex) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+            }
+        });
+    }
+
+    @ExceptionHandler(NewsChangesExpiredException.class)
+    public ResponseEntity<String> handleChangesExpired(NewsChangesExpiredException ex) {
+        return ResponseEntity.status(HttpStatus.GONE).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<String> handleRejected(TaskRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(NEWS_SERVICE_BUSY.getMessage());
+    }
+
+    /**
+     * Отдает готовые байты из {@link NewsResponseEncoder}: gzip, если клиент его принимает и он есть, иначе JSON.
+     * У каждого варианта свой ETag.
+     */
+    private static ResponseEntity<byte[]> encoded(ResponseEntity.BodyBuilder builder, EncodedNewsResponse response,
+                                                  String acceptEncoding) {
+        builder.contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (response.getGzip() != null && NewsResponseEncoder.acceptsGzip(acceptEncoding)) {
+            return builder.eTag(response.getGzipETag())
+                    .header(HttpHeaders.CONTENT_ENCODING, GZIP)
+                    .contentLength(response.getGzip().length)
+                    .body(response.getGzip());
         }
+        return builder.eTag(response.getETag())
+                .contentLength(response.getJson().length)
+                .body(response.getJson());
+    }
+
+    /**
+     * Чтения выполняются на {@code applicationTaskExecutor}, а не на потоке Tomcat.
+     * Пул растет сверх {@code core-size} только при заполненной очереди, поэтому очередь держится короткой
+     * ({@code spring.task.execution.*}): когда заняты все {@code max-size} потоков и очередь полна,
+     * запрос сразу получает 503.
+     */
+    private <T> CompletableFuture<T> async(Supplier<T> action) {
+        return CompletableFuture.supplyAsync(action, applicationTaskExecutor);
     }
 }
@@ -0,0 +1,53 @@
+package com.javacademy.new_york_times.controller;
+
+import com.javacademy.new_york_times.dto.NewsDto;
+import com.javacademy.new_york_times.dto.NewsPageDto;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Строгие ETag новостей и страниц. Считаются по уже загруженным DTO, без сериализации и без хранилища.
+ * Сжатый gzip ответ - другое представление с другими байтами, поэтому его ETag отличается суффиксом.
+ */
+final class NewsETags {
+    private static final String ANY = "*";
+    private static final String GZIP_SUFFIX = "-gz\"";
+
+    private NewsETags() {
+    }
+
+    static String of(NewsDto dto) {
+        return "\"%s-%s\"".formatted(dto.getNumber(), dto.getRevision());
+    }
+
+    /**
+     * Номера новостей не переиспользуются, а ревизия растет при каждой записи,
+     * поэтому первая и последняя новость, их количество, наибольшая ревизия и число страниц
+     * однозначно задают содержимое страницы.
+     */
+    static String of(NewsPageDto<NewsDto> page) {
+        List<NewsDto> content = page.getContent();
+        if (content.isEmpty()) {
+            return "\"p%s-0\"".formatted(page.getCountPages());
+        }
+        long maxRevision = content.stream().mapToLong(NewsDto::getRevision).max().orElseThrow();
+        return "\"p%s-%s-%s-%s-%s\"".formatted(page.getCountPages(), content.size(),
+                content.get(0).getNumber(), content.get(content.size() - 1).getNumber(), maxRevision);
+    }
+
+    static String gzip(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + GZIP_SUFFIX;
+    }
+
+    /**
+     * Строгое сравнение для {@code If-Match}: слабые ETag не совпадают ни с чем.
+     * Подходит ETag любого представления - и JSON, и gzip.
+     */
+    static boolean matches(String ifMatch, String eTag) {
+        String gzipETag = gzip(eTag);
+        return Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> ANY.equals(candidate) || candidate.equals(eTag) || candidate.equals(gzipETag));
+    }
+}
@@ -0,0 +1,91 @@
+package com.javacademy.new_york_times.controller;
+
+import com.javacademy.new_york_times.config.NewsCacheProperties;
+import com.javacademy.new_york_times.dto.NewsDto;
+import com.javacademy.new_york_times.dto.NewsPageDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кэш готовых тел ответов для новостей и страниц.
+ * Ключ - сам закэшированный DTO по ссылке ({@code weakKeys}): пока {@code news_by_id} или {@code news_by_page}
+ * отдает тот же объект, его JSON и gzip берутся отсюда без сериализации и сжатия. Когда запись кэша
+ * заменяют или сбрасывают, старый DTO становится недостижим и его байты уходят вместе с ним,
+ * так что отдельной инвалидации не нужно. Ревизия в JSON не пишется, поэтому ETag считается здесь же
+ * по DTO и хранится рядом с байтами.
+ */
+@Component
+public class NewsResponseEncoder {
+    private static final String GZIP = "gzip";
+    private static final String ANY = "*";
+    private static final String ZERO_QUALITY = "q=0";
+    private static final int MIN_GZIP_SIZE = 256;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Object, EncodedNewsResponse> encoded;
+
+    public NewsResponseEncoder(ObjectMapper objectMapper, NewsCacheProperties properties) {
+        this.objectMapper = objectMapper;
+        this.encoded = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(properties.getResponseMaxSize())
+                .build();
+    }
+
+    public EncodedNewsResponse encode(NewsDto dto) {
+        return encoded.get(dto, key -> encode(dto, () -> NewsETags.of(dto)));
+    }
+
+    public EncodedNewsResponse encode(NewsPageDto<NewsDto> page) {
+        return encoded.get(page, key -> encode(page, () -> NewsETags.of(page)));
+    }
+
+    /**
+     * Принимает ли клиент gzip по заголовку {@code Accept-Encoding}.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean refused = parts.length > 1 && parts[1].replace(" ", "").equals(ZERO_QUALITY);
+            if ((GZIP.equalsIgnoreCase(name) || ANY.equals(name)) && !refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private EncodedNewsResponse encode(Object body, Supplier<String> eTag) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            String jsonETag = eTag.get();
+            return json.length < MIN_GZIP_SIZE
+                    ? new EncodedNewsResponse(json, null, jsonETag, null)
+                    : new EncodedNewsResponse(json, gzip(json), jsonETag, NewsETags.gzip(jsonETag));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize response", ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,15 @@
+package com.javacademy.new_york_times.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NewsAuthorDto {
+    private String author;
+    private Integer count;
+}
@@ -0,0 +1,16 @@
+package com.javacademy.new_york_times.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NewsBatchResultDto {
+    private Integer number;
+    private Integer status;
+    private String message;
+}
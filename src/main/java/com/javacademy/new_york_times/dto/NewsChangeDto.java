@@ -0,0 +1,21 @@
+package com.javacademy.new_york_times.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Событие ленты изменений. У удаления нет ни ревизии, ни новости.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NewsChangeDto {
+    private Long sequence;
+    private NewsChangeType type;
+    private Integer number;
+    private Long revision;
+    private NewsDto news;
+}
@@ -0,0 +1,7 @@
+package com.javacademy.new_york_times.dto;
+
+public enum NewsChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,18 @@
+package com.javacademy.new_york_times.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Порция ленты изменений. {@code lastSequence} передается в следующий запрос как {@code since},
+ * {@code headSequence} - номер последнего события в журнале на момент ответа.
+ */
+@Data
+@AllArgsConstructor
+public class NewsChangesDto {
+    private List<NewsChangeDto> changes;
+    private Long lastSequence;
+    private Long headSequence;
+}
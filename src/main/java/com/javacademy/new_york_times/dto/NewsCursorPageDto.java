@@ -0,0 +1,15 @@
+package com.javacademy.new_york_times.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class NewsCursorPageDto<T> {
+    private List<T> content;
+    private Integer nextCursor;
+    private Integer limit;
+    private Integer size;
+}
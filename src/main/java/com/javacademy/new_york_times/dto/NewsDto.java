@@ -1,5 +1,6 @@
 package com.javacademy.new_york_times.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,4 +15,6 @@ public class NewsDto {
     private String title;
     private String text;
     private String author;
+    @JsonIgnore
+    private Long revision;
 }
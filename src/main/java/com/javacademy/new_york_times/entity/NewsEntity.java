@@ -14,4 +14,8 @@ public class NewsEntity {
     private String title;
     private String text;
     private String author;
+    /**
+     * Ревизия новости: растет при каждой записи, выставляется хранилищем.
+     */
+    private Long revision;
 }
@@ -0,0 +1,10 @@
+package com.javacademy.new_york_times.exception;
+
+import com.javacademy.new_york_times.service.NewsErrorType;
+
+public class NewsChangesExpiredException extends RuntimeException {
+
+    public NewsChangesExpiredException(NewsErrorType message) {
+        super(message.getMessage());
+    }
+}
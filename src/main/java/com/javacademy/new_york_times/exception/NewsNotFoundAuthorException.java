@@ -2,9 +2,26 @@ package com.javacademy.new_york_times.exception;
 
 import com.javacademy.new_york_times.service.NewsErrorType;
 
-public class NewsNotFoundAuthorException extends RuntimeException  {
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Как и {@link NewsNotFoundException}, создается без стека, готовые экземпляры - через {@link #of}.
+ */
+public class NewsNotFoundAuthorException extends RuntimeException {
+    private static final Map<NewsErrorType, NewsNotFoundAuthorException> INSTANCES = new EnumMap<>(NewsErrorType.class);
+
+    static {
+        for (NewsErrorType errorType : NewsErrorType.values()) {
+            INSTANCES.put(errorType, new NewsNotFoundAuthorException(errorType));
+        }
+    }
 
     public NewsNotFoundAuthorException(NewsErrorType message) {
-        super(message.getMessage());
+        super(message.getMessage(), null, false, false);
+    }
+
+    public static NewsNotFoundAuthorException of(NewsErrorType errorType) {
+        return INSTANCES.get(errorType);
     }
 }
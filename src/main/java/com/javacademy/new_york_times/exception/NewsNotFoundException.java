@@ -2,9 +2,27 @@ package com.javacademy.new_york_times.exception;
 
 import com.javacademy.new_york_times.service.NewsErrorType;
 
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Исключение без стека: оно означает обычный ответ 404, а не сбой, и сборка стека была бы его основной ценой.
+ * Для каждого {@link NewsErrorType} есть заранее созданный экземпляр, см. {@link #of}.
+ */
 public class NewsNotFoundException extends RuntimeException {
+    private static final Map<NewsErrorType, NewsNotFoundException> INSTANCES = new EnumMap<>(NewsErrorType.class);
+
+    static {
+        for (NewsErrorType errorType : NewsErrorType.values()) {
+            INSTANCES.put(errorType, new NewsNotFoundException(errorType));
+        }
+    }
 
     public NewsNotFoundException(NewsErrorType message) {
-        super(message.getMessage());
+        super(message.getMessage(), null, false, false);
+    }
+
+    public static NewsNotFoundException of(NewsErrorType errorType) {
+        return INSTANCES.get(errorType);
     }
 }
@@ -2,9 +2,26 @@ package com.javacademy.new_york_times.exception;
 
 import com.javacademy.new_york_times.service.NewsErrorType;
 
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Как и {@link NewsNotFoundException}, создается без стека, готовые экземпляры - через {@link #of}.
+ */
 public class NewsNotFoundTextException extends RuntimeException {
+    private static final Map<NewsErrorType, NewsNotFoundTextException> INSTANCES = new EnumMap<>(NewsErrorType.class);
+
+    static {
+        for (NewsErrorType errorType : NewsErrorType.values()) {
+            INSTANCES.put(errorType, new NewsNotFoundTextException(errorType));
+        }
+    }
 
     public NewsNotFoundTextException(NewsErrorType message) {
-        super(message.getMessage());
+        super(message.getMessage(), null, false, false);
+    }
+
+    public static NewsNotFoundTextException of(NewsErrorType errorType) {
+        return INSTANCES.get(errorType);
     }
 }
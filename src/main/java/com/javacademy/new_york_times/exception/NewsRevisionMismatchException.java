@@ -0,0 +1,10 @@
+package com.javacademy.new_york_times.exception;
+
+import com.javacademy.new_york_times.service.NewsErrorType;
+
+public class NewsRevisionMismatchException extends RuntimeException {
+
+    public NewsRevisionMismatchException(NewsErrorType message) {
+        super(message.getMessage());
+    }
+}
@@ -0,0 +1,139 @@
+package com.javacademy.new_york_times.logging;
+
+import com.javacademy.new_york_times.config.NewsTracingProperties;
+import com.javacademy.new_york_times.dto.NewsChangesDto;
+import com.javacademy.new_york_times.dto.NewsCursorPageDto;
+import com.javacademy.new_york_times.dto.NewsPageDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Трассировка вызовов по выборке.
+ * Аргументы и результат рендерятся только для попавших в выборку вызовов и только при включенном уровне лога,
+ * коллекции и страницы новостей выводятся размером, а не содержимым, длинные строки обрезаются.
+ * Для методов, возвращающих {@link CompletableFuture}, время и результат пишутся по завершении future.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TracingInterceptor implements MethodInterceptor {
+    private static final String ELLIPSIS = "...";
+
+    private final NewsTracingProperties properties;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!log.isEnabledForLevel(properties.getLevel()) || !sampled()) {
+            return invocation.proceed();
+        }
+        Method method = invocation.getMethod();
+        String arguments = render(invocation.getArguments());
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable ex) {
+            logFailure(method, arguments, ex, start);
+            throw ex;
+        }
+        if (result instanceof CompletableFuture<?> future) {
+            future.whenComplete((value, ex) -> {
+                if (ex == null) {
+                    logResult(method, arguments, value, start);
+                } else {
+                    logFailure(method, arguments, ex instanceof CompletionException && ex.getCause() != null
+                            ? ex.getCause() : ex, start);
+                }
+            });
+        } else {
+            logResult(method, arguments, result, start);
+        }
+        return result;
+    }
+
+    private void logResult(Method method, String arguments, Object result, long start) {
+        log.atLevel(properties.getLevel()).log("{}.{}({}) -> {} за {} мкс",
+                method.getDeclaringClass().getSimpleName(), method.getName(),
+                arguments, render(result), elapsedMicros(start));
+    }
+
+    private void logFailure(Method method, String arguments, Throwable ex, long start) {
+        log.atLevel(properties.getLevel()).log("{}.{}({}) выбросил {}: {} за {} мкс",
+                method.getDeclaringClass().getSimpleName(), method.getName(),
+                arguments, ex.getClass().getSimpleName(), truncate(ex.getMessage()), elapsedMicros(start));
+    }
+
+    private boolean sampled() {
+        double sampleRate = properties.getSampleRate();
+        return sampleRate >= 1 || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private String render(Object[] arguments) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < arguments.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(render(arguments[i]));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Страницы и ответы рендерятся по типу: их {@code toString} от Lombok строил бы строку из всех вложенных
+     * новостей с текстами еще до обрезки.
+     */
+    private String render(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return sized(value, collection.size());
+        }
+        if (value instanceof Map<?, ?> map) {
+            return sized(value, map.size());
+        }
+        if (value instanceof Object[] array) {
+            return "%s[size=%s]".formatted(value.getClass().getComponentType().getSimpleName(), array.length);
+        }
+        if (value instanceof byte[] bytes) {
+            return "byte[size=%s]".formatted(bytes.length);
+        }
+        if (value instanceof NewsPageDto<?> page) {
+            return sized(value, page.getContent() == null ? 0 : page.getContent().size());
+        }
+        if (value instanceof NewsCursorPageDto<?> page) {
+            return sized(value, page.getContent() == null ? 0 : page.getContent().size());
+        }
+        if (value instanceof NewsChangesDto changes) {
+            return sized(value, changes.getChanges() == null ? 0 : changes.getChanges().size());
+        }
+        if (value instanceof ResponseEntity<?> response) {
+            return "ResponseEntity[%s, %s]".formatted(response.getStatusCode().value(), render(response.getBody()));
+        }
+        return truncate(String.valueOf(value));
+    }
+
+    private static String sized(Object value, int size) {
+        return "%s[size=%s]".formatted(value.getClass().getSimpleName(), size);
+    }
+
+    private String truncate(String value) {
+        int maxLength = properties.getMaxArgumentLength();
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength) + ELLIPSIS;
+    }
+
+    private static long elapsedMicros(long start) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+    }
+}
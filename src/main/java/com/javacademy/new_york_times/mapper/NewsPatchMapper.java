@@ -6,10 +6,15 @@ import org.springframework.stereotype.Service;
 @Service
 public class NewsPatchMapper {
 
+    /**
+     * Собирает новую версию новости, не меняя {@code oldDto}: он может лежать в кэше.
+     */
     public NewsDto convertToNewsDtoForPatch(NewsDto oldDto, NewsDto newDto) {
-        oldDto.setTitle(newDto.getTitle() != null ? newDto.getTitle() : oldDto.getTitle());
-        oldDto.setText(newDto.getText() != null ? newDto.getText() : oldDto.getText());
-        oldDto.setAuthor(newDto.getAuthor() != null ? newDto.getAuthor() : oldDto.getAuthor());
-        return oldDto;
+        return NewsDto.builder()
+                .number(oldDto.getNumber())
+                .title(newDto.getTitle() != null ? newDto.getTitle() : oldDto.getTitle())
+                .text(newDto.getText() != null ? newDto.getText() : oldDto.getText())
+                .author(newDto.getAuthor() != null ? newDto.getAuthor() : oldDto.getAuthor())
+                .build();
     }
 }
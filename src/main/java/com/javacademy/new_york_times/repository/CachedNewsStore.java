@@ -0,0 +1,413 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.config.NewsStoreProperties;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище новостей поверх {@link NewsBackend}.
+ * Один раз при старте загружает все новости и дальше отдает чтения из упорядоченной копии в памяти
+ * ({@link NewsSnapshot}, ее вид задает {@link NewsStoreLayout}),
+ * записи проходят в репозиторий и сразу же применяются к копии.
+ * Чтения не берут блокировок, записи согласуются через {@link NewsStoreLocks}.
+ * Страницы ищутся через {@link NewsNumberIndex} и затрагивают только нужные строки,
+ * поиск по словам идет через {@link NewsSearchIndex}, выборки по автору - через {@link NewsAuthorIndex}.
+ * Время каждого обращения к репозиторию пишется в таймер {@code news.repository}.
+ * Каждая запись выставляет новости новую ревизию: она строго растет и совпадает с временем записи в миллисекундах,
+ * пока записей не больше одной в миллисекунду. Загруженные при старте новости получают одну общую ревизию -
+ * время загрузки: ревизия уникальна в пределах новости, а счет по миллисекунде на новость увел бы
+ * {@code Last-Modified} в будущее.
+ * О каждой записи, кроме начальной загрузки, узнают {@link NewsStoreListener}.
+ * Добавления и удаления вместе с вызовом слушателей идут под блокировкой репозитория, поэтому
+ * {@link #count()} внутри слушателя равен числу новостей сразу после этой записи.
+ * Каждая запись увеличивает {@link #writeGeneration()} до вызова слушателей.
+ */
+@Component
+public class CachedNewsStore {
+    private final NewsBackend backend;
+    private final NewsStoreLocks locks;
+    private final NewsSnapshot snapshot;
+    private final NewsNumberIndex index = new NewsNumberIndex();
+    private final NewsSearchIndex searchIndex = new NewsSearchIndex();
+    private final NewsAuthorIndex authorIndex = new NewsAuthorIndex();
+    private final AtomicLong revisionClock = new AtomicLong();
+    private final AtomicLong writeGeneration = new AtomicLong();
+    private final List<NewsStoreListener> listeners = new CopyOnWriteArrayList<>();
+    private final Timer findAllTimer;
+    private final Timer saveTimer;
+    private final Timer updateTimer;
+    private final Timer deleteTimer;
+
+    public CachedNewsStore(NewsBackend backend, NewsStoreProperties properties, MeterRegistry meterRegistry) {
+        this.backend = backend;
+        this.locks = new NewsStoreLocks(properties.getConcurrency(), properties.getLockStripes());
+        this.snapshot = switch (properties.getLayout()) {
+            case ENTITY -> new EntityNewsSnapshot();
+            case COMPACT -> new CompactNewsSnapshot();
+        };
+        this.findAllTimer = repositoryTimer(meterRegistry, "findAll");
+        this.saveTimer = repositoryTimer(meterRegistry, "save");
+        this.updateTimer = repositoryTimer(meterRegistry, "update");
+        this.deleteTimer = repositoryTimer(meterRegistry, "deleteByNumber");
+        Gauge.builder("news.store.size", this, CachedNewsStore::count)
+                .description("Количество новостей в хранилище")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        List<NewsEntity> entities = locks.withRepository(() -> findAllTimer.record(backend::findAll));
+        long loadedAt = nextRevision();
+        entities.forEach(entity -> {
+            entity.setRevision(loadedAt);
+            putNew(entity);
+        });
+    }
+
+    public void addListener(NewsStoreListener listener) {
+        listeners.add(listener);
+    }
+
+    public void save(NewsEntity entity) {
+        locks.withNewNumber(() -> {
+            entity.setRevision(nextRevision());
+            saveTimer.record(() -> backend.save(entity));
+            putNew(entity);
+            writeGeneration.incrementAndGet();
+            listeners.forEach(listener -> listener.onSaved(entity));
+            return entity;
+        });
+    }
+
+    /**
+     * Сохраняет пакет новостей за одно взятие блокировки репозитория.
+     * Если репозиторий падает посреди пакета, уже сохраненная часть остается, и слушатели узнают именно о ней.
+     */
+    public void saveAll(List<NewsEntity> entities) {
+        locks.withNewNumber(() -> {
+            List<NewsEntity> saved = new ArrayList<>(entities.size());
+            try {
+                for (NewsEntity entity : entities) {
+                    entity.setRevision(nextRevision());
+                    saveTimer.record(() -> backend.save(entity));
+                    putNew(entity);
+                    saved.add(entity);
+                }
+            } finally {
+                if (!saved.isEmpty()) {
+                    writeGeneration.incrementAndGet();
+                    listeners.forEach(listener -> listener.onSavedAll(saved));
+                }
+            }
+            return saved;
+        });
+    }
+
+    public List<NewsEntity> findAll() {
+        return snapshot.range(1, Integer.MAX_VALUE).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Новости с позиции {@code offset} в порядке номеров, не больше {@code limit} штук.
+     */
+    public List<NewsEntity> findPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative: %s, %s"
+                    .formatted(offset, limit));
+        }
+        int firstNumber = index.numberAt(offset);
+        if (firstNumber < 0) {
+            return List.of();
+        }
+        return snapshot.range(firstNumber, Integer.MAX_VALUE).limit(limit).toList();
+    }
+
+    /**
+     * Новости с номером больше {@code afterNumber} в порядке номеров, не больше {@code limit} штук.
+     * Если {@code afterNumber} не задан, выборка идет с самого начала.
+     */
+    public List<NewsEntity> findAfter(Integer afterNumber, int limit) {
+        if (afterNumber != null && afterNumber == Integer.MAX_VALUE) {
+            return List.of();
+        }
+        int fromNumber = afterNumber == null ? 1 : afterNumber + 1;
+        return snapshot.range(fromNumber, Integer.MAX_VALUE).limit(limit).toList();
+    }
+
+    public int count() {
+        return index.size();
+    }
+
+    /**
+     * Сколько новостей стоит перед {@code number} в порядке номеров.
+     */
+    public int countBefore(Integer number) {
+        return index.countBefore(number);
+    }
+
+    public List<NewsEntity> findRange(Integer fromNumber, Integer toNumber) {
+        if (fromNumber > toNumber) {
+            return List.of();
+        }
+        return snapshot.range(fromNumber, toNumber).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Новости с номерами от {@code fromNumber} до {@code toNumber} включительно, границы необязательны.
+     * Поток читает копию в памяти напрямую, без промежуточного списка.
+     */
+    public Stream<NewsEntity> streamRange(Integer fromNumber, Integer toNumber) {
+        return snapshot.range(fromNumber == null ? 1 : fromNumber, toNumber == null ? Integer.MAX_VALUE : toNumber);
+    }
+
+    /**
+     * Новости, подходящие под {@code query}, в порядке номеров: с позиции {@code offset}, не больше {@code limit}.
+     * Фразы проверяются по самим новостям, поэтому кандидаты проверяются только до конца нужной страницы,
+     * а общее число найденных в этом случае - верхняя граница: найденные плюс еще не проверенные кандидаты.
+     */
+    public NewsSearchResult search(NewsSearchQuery query, int offset, int limit) {
+        if (query.getTerms().isEmpty()) {
+            return findByAuthor(query.getAuthor(), offset, limit);
+        }
+        int[] candidates = searchIndex.find(query.getTerms());
+        if (query.getAuthor() != null) {
+            candidates = NumberPostings.intersect(candidates, authorIndex.find(query.getAuthor()));
+        }
+        if (!query.hasPhrases()) {
+            return page(candidates, offset, limit);
+        }
+        long needed = (long) offset + limit;
+        List<NewsEntity> content = new ArrayList<>(limit);
+        int matched = 0;
+        int checked = 0;
+        for (; checked < candidates.length && matched < needed; checked++) {
+            NewsEntity entity = snapshot.get(candidates[checked]);
+            if (entity != null && query.matchesPhrases(entity)) {
+                if (matched >= offset) {
+                    content.add(entity);
+                }
+                matched++;
+            }
+        }
+        return new NewsSearchResult(content, matched + candidates.length - checked);
+    }
+
+    /**
+     * Новости автора в порядке номеров: с позиции {@code offset}, не больше {@code limit}.
+     * Стоимость зависит от размера страницы, а не от числа новостей автора.
+     */
+    public NewsSearchResult findByAuthor(String author, int offset, int limit) {
+        NumberSlice slice = authorIndex.find(author, offset, limit);
+        List<NewsEntity> content = Arrays.stream(slice.getNumbers())
+                .mapToObj(snapshot::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new NewsSearchResult(content, slice.getTotal());
+    }
+
+    /**
+     * Авторы по алфавиту с числом их новостей.
+     */
+    public Map<String, Integer> countByAuthor() {
+        return authorIndex.counts();
+    }
+
+    /**
+     * Есть ли новость с номером {@code number}: проверка по индексу номеров, без чтения самой новости.
+     */
+    public boolean contains(int number) {
+        return index.contains(number);
+    }
+
+    /**
+     * Число записей с момента запуска. Если оно не изменилось за время чтения, чтение не пересекалось с записью.
+     */
+    public long writeGeneration() {
+        return writeGeneration.get();
+    }
+
+    public Optional<NewsEntity> findByNumber(Integer number) {
+        return Optional.ofNullable(number).map(snapshot::get);
+    }
+
+    public boolean deleteByNumber(Integer number) {
+        return locks.withNumber(number, () -> locks.withRepository(() -> {
+            if (!remove(number)) {
+                return false;
+            }
+            writeGeneration.incrementAndGet();
+            listeners.forEach(listener -> listener.onDeleted(number));
+            return true;
+        }));
+    }
+
+    /**
+     * Удаляет пакет новостей за одно взятие блокировок, слушатели узнают о нем одним вызовом.
+     *
+     * @return номера удаленных новостей; номер, которого нет, и повтор уже удаленного номера пропускаются
+     */
+    public List<Integer> deleteAll(List<Integer> numbers) {
+        return locks.withNumbers(numbers, () -> locks.withRepository(() -> {
+            List<Integer> deleted = new ArrayList<>(numbers.size());
+            try {
+                for (Integer number : numbers) {
+                    if (remove(number)) {
+                        deleted.add(number);
+                    }
+                }
+            } finally {
+                if (!deleted.isEmpty()) {
+                    writeGeneration.incrementAndGet();
+                    listeners.forEach(listener -> listener.onDeletedAll(deleted));
+                }
+            }
+            return deleted;
+        }));
+    }
+
+    public void update(NewsEntity updateEntity) {
+        locks.withNumber(updateEntity.getNumber(), () -> {
+            write(updateEntity);
+            return null;
+        });
+    }
+
+    /**
+     * Обновляет пакет новостей за одно взятие блокировок номеров, слушатели узнают о нем одним вызовом.
+     *
+     * @return обновленные новости; новости, которых уже нет в хранилище, пропускаются
+     */
+    public List<NewsEntity> updateAll(List<NewsEntity> entities) {
+        List<Integer> numbers = entities.stream().map(NewsEntity::getNumber).toList();
+        return locks.withNumbers(numbers, () -> {
+            List<NewsEntity> updated = new ArrayList<>(entities.size());
+            try {
+                for (NewsEntity entity : entities) {
+                    if (index.contains(entity.getNumber())) {
+                        apply(entity);
+                        updated.add(entity);
+                    }
+                }
+            } finally {
+                if (!updated.isEmpty()) {
+                    writeGeneration.incrementAndGet();
+                    listeners.forEach(listener -> listener.onUpdatedAll(updated));
+                }
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Обновляет новость, только если ее ревизия все еще {@code expectedRevision}.
+     *
+     * @return false, если новость успели изменить или удалить
+     */
+    public boolean updateIfRevision(NewsEntity updateEntity, Long expectedRevision) {
+        return locks.withNumber(updateEntity.getNumber(), () -> {
+            NewsEntity current = snapshot.get(updateEntity.getNumber());
+            if (current == null || !current.getRevision().equals(expectedRevision)) {
+                return false;
+            }
+            write(updateEntity);
+            return true;
+        });
+    }
+
+    private void write(NewsEntity updateEntity) {
+        apply(updateEntity);
+        writeGeneration.incrementAndGet();
+        listeners.forEach(listener -> listener.onUpdated(updateEntity));
+    }
+
+    private void apply(NewsEntity updateEntity) {
+        updateEntity.setRevision(nextRevision());
+        locks.withRepository(() -> {
+            updateTimer.record(() -> backend.update(updateEntity));
+            return null;
+        });
+        NewsEntity previous = snapshot.put(updateEntity);
+        if (previous == null) {
+            index(updateEntity);
+        } else {
+            reindex(previous, updateEntity);
+        }
+    }
+
+    private boolean remove(Integer number) {
+        if (!deleteTimer.record(() -> backend.deleteByNumber(number))) {
+            return false;
+        }
+        NewsEntity removed = snapshot.remove(number);
+        index.remove(number);
+        if (removed != null) {
+            unindex(removed);
+        }
+        return true;
+    }
+
+    private long nextRevision() {
+        long now = System.currentTimeMillis();
+        return revisionClock.updateAndGet(last -> Math.max(last + 1, now));
+    }
+
+    private NewsSearchResult page(int[] numbers, int offset, int limit) {
+        List<NewsEntity> content = Arrays.stream(numbers)
+                .skip(offset)
+                .mapToObj(snapshot::get)
+                .filter(Objects::nonNull)
+                .limit(limit)
+                .toList();
+        return new NewsSearchResult(content, numbers.length);
+    }
+
+    private static Timer repositoryTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("news.repository")
+                .description("Время обращений к NewsBackend")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private void putNew(NewsEntity entity) {
+        snapshot.put(entity);
+        index.add(entity.getNumber());
+        index(entity);
+    }
+
+    private void index(NewsEntity entity) {
+        searchIndex.add(entity);
+        authorIndex.add(entity.getAuthor(), entity.getNumber());
+    }
+
+    /**
+     * Переносит в индексы только то, что изменилось между версиями новости.
+     */
+    private void reindex(NewsEntity previous, NewsEntity current) {
+        searchIndex.replace(previous, current);
+        if (!Objects.equals(NewsAuthorIndex.normalize(previous.getAuthor()),
+                NewsAuthorIndex.normalize(current.getAuthor()))) {
+            authorIndex.remove(previous.getAuthor(), previous.getNumber());
+            authorIndex.add(current.getAuthor(), current.getNumber());
+        }
+    }
+
+    private void unindex(NewsEntity entity) {
+        searchIndex.remove(entity);
+        authorIndex.remove(entity.getAuthor(), entity.getNumber());
+    }
+}
@@ -0,0 +1,160 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Компактная копия новостей.
+ * Номер новости - индекс в массиве блоков, без упакованных {@link Integer} и узлов дерева.
+ * Заголовок и текст лежат байтами UTF-8 и декодируются только при чтении,
+ * автор хранится номером в словаре авторов, одна строка на автора.
+ * Номера новостей плотные и не переиспользуются, поэтому обход диапазона идет по массиву подряд.
+ */
+class CompactNewsSnapshot implements NewsSnapshot {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CHUNKS = 16;
+    private static final int NO_AUTHOR = -1;
+
+    private final AuthorDictionary authors = new AuthorDictionary();
+    private final AtomicInteger maxNumber = new AtomicInteger();
+    private volatile AtomicReferenceArray<AtomicReferenceArray<CompactNews>> chunks =
+            new AtomicReferenceArray<>(INITIAL_CHUNKS);
+
+    @Override
+    public NewsEntity get(int number) {
+        AtomicReferenceArray<CompactNews> chunk = chunk(number);
+        return chunk == null ? null : decode(number, chunk.get(number & CHUNK_MASK));
+    }
+
+    @Override
+    public NewsEntity put(NewsEntity entity) {
+        int number = entity.getNumber();
+        CompactNews previous = chunkForWrite(number).getAndSet(number & CHUNK_MASK, encode(entity));
+        maxNumber.accumulateAndGet(number, Math::max);
+        return decode(number, previous);
+    }
+
+    @Override
+    public NewsEntity remove(int number) {
+        AtomicReferenceArray<CompactNews> chunk = chunk(number);
+        return chunk == null ? null : decode(number, chunk.getAndSet(number & CHUNK_MASK, null));
+    }
+
+    @Override
+    public Stream<NewsEntity> range(int fromNumber, int toNumber) {
+        return IntStream.rangeClosed(Math.max(fromNumber, 1), Math.min(toNumber, maxNumber.get()))
+                .mapToObj(this::get)
+                .filter(Objects::nonNull);
+    }
+
+    private AtomicReferenceArray<CompactNews> chunk(int number) {
+        if (number < 0) {
+            return null;
+        }
+        AtomicReferenceArray<AtomicReferenceArray<CompactNews>> directory = chunks;
+        int index = number >>> CHUNK_BITS;
+        return index < directory.length() ? directory.get(index) : null;
+    }
+
+    private AtomicReferenceArray<CompactNews> chunkForWrite(int number) {
+        AtomicReferenceArray<CompactNews> chunk = chunk(number);
+        return chunk != null ? chunk : createChunk(number >>> CHUNK_BITS);
+    }
+
+    /**
+     * Блоки создаются и каталог растет под одной блокировкой: это редкая операция, раз на {@value #CHUNK_SIZE}
+     * номеров, а читатели видят либо старый каталог, либо новый с теми же блоками.
+     */
+    private synchronized AtomicReferenceArray<CompactNews> createChunk(int index) {
+        AtomicReferenceArray<AtomicReferenceArray<CompactNews>> directory = chunks;
+        if (index >= directory.length()) {
+            AtomicReferenceArray<AtomicReferenceArray<CompactNews>> grown =
+                    new AtomicReferenceArray<>(Integer.highestOneBit(index) << 1);
+            for (int i = 0; i < directory.length(); i++) {
+                grown.set(i, directory.get(i));
+            }
+            chunks = grown;
+            directory = grown;
+        }
+        AtomicReferenceArray<CompactNews> chunk = directory.get(index);
+        if (chunk == null) {
+            chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+            directory.set(index, chunk);
+        }
+        return chunk;
+    }
+
+    private CompactNews encode(NewsEntity entity) {
+        return new CompactNews(bytes(entity.getTitle()), bytes(entity.getText()),
+                entity.getAuthor() == null ? NO_AUTHOR : authors.idOf(entity.getAuthor()), entity.getRevision());
+    }
+
+    private NewsEntity decode(int number, CompactNews news) {
+        if (news == null) {
+            return null;
+        }
+        return NewsEntity.builder()
+                .number(number)
+                .title(string(news.title))
+                .text(string(news.text))
+                .author(news.author == NO_AUTHOR ? null : authors.nameOf(news.author))
+                .revision(news.revision)
+                .build();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static final class CompactNews {
+        private final byte[] title;
+        private final byte[] text;
+        private final int author;
+        private final long revision;
+
+        private CompactNews(byte[] title, byte[] text, int author, Long revision) {
+            this.title = title;
+            this.text = text;
+            this.author = author;
+            this.revision = revision == null ? 0 : revision;
+        }
+    }
+
+    /**
+     * Словарь авторов. Новые авторы добавляются редко и под блокировкой, чтение имени по номеру - без нее.
+     */
+    private static final class AuthorDictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> names = new CopyOnWriteArrayList<>();
+
+        private synchronized int idOf(String name) {
+            Integer id = ids.get(name);
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                ids.put(name, id);
+            }
+            return id;
+        }
+
+        private String nameOf(int id) {
+            return names.get(id);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Копия новостей как есть: сами {@link NewsEntity} в {@link ConcurrentSkipListMap}.
+ */
+class EntityNewsSnapshot implements NewsSnapshot {
+    private final NavigableMap<Integer, NewsEntity> entities = new ConcurrentSkipListMap<>();
+
+    @Override
+    public NewsEntity get(int number) {
+        return entities.get(number);
+    }
+
+    @Override
+    public NewsEntity put(NewsEntity entity) {
+        return entities.put(entity.getNumber(), entity);
+    }
+
+    @Override
+    public NewsEntity remove(int number) {
+        return entities.remove(number);
+    }
+
+    @Override
+    public Stream<NewsEntity> range(int fromNumber, int toNumber) {
+        if (fromNumber > toNumber) {
+            return Stream.empty();
+        }
+        return entities.subMap(fromNumber, true, toNumber, true).values().stream();
+    }
+}
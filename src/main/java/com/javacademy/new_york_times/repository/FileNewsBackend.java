@@ -0,0 +1,468 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Новости на диске: журнал записей только на дозапись ({@value #LOG_FILE})
+ * и индекс номер -> смещение последней версии в журнале ({@value #INDEX_FILE}), отображенный в память.
+ * <p>
+ * Каждая запись журнала - длина, CRC32 и тело, поэтому оборванный при сбое хвост находится и отрезается.
+ * Пока хранилище открыто, индекс помечен как "грязный". После штатного закрытия он доверенный
+ * и открытие не читает журнал. После сбоя индекс целиком пересобирается проходом по журналу.
+ * <p>
+ * Когда мертвых байт (старых версий и удалений) становится больше живых и не меньше {@code compactThreshold},
+ * журнал переписывается из одних живых записей во временный файл и атомарно подменяет старый.
+ * <p>
+ * При первом запуске, когда журнала еще нет, новости из {@code initialData} пишутся во временный файл,
+ * который становится журналом только после сброса на диск. Сбой посреди импорта оставляет лишь временный файл,
+ * и следующий запуск повторяет импорт целиком.
+ */
+@Slf4j
+public final class FileNewsBackend implements NewsBackend, Closeable {
+    static final String LOG_FILE = "news.log";
+    static final String INDEX_FILE = "news.idx";
+    private static final String COMPACT_SUFFIX = ".compact";
+    private static final String IMPORT_SUFFIX = ".import";
+
+    private static final long LOG_MAGIC = 0x4E59542D4C4F4701L;
+    private static final int LOG_NUMBER_FLOOR_AT = Long.BYTES;
+    private static final int LOG_HEADER = 2 * Long.BYTES;
+
+    private static final long INDEX_MAGIC = 0x4E59542D49445801L;
+    private static final int INDEX_LOG_LENGTH_AT = Long.BYTES;
+    private static final int INDEX_LIVE_BYTES_AT = 2 * Long.BYTES;
+    private static final int INDEX_MAX_NUMBER_AT = 3 * Long.BYTES;
+    private static final int INDEX_CLEAN_AT = INDEX_MAX_NUMBER_AT + Integer.BYTES;
+    private static final int INDEX_HEADER = 4 * Long.BYTES;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int CLEAN = 1;
+    private static final int DIRTY = 0;
+    private static final long NO_RECORD = 0;
+
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+    private static final int MAX_RECORD = 64 * 1024 * 1024;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int NULL_STRING = -1;
+    private static final int STRING_FIELDS = 3;
+
+    private final Path logPath;
+    private final boolean syncWrites;
+    private final long compactThreshold;
+    private final FileChannel indexChannel;
+    private FileChannel journal;
+    private MappedByteBuffer index;
+    private int capacity;
+    private long logLength;
+    private long liveBytes;
+    private int maxNumber;
+
+    private FileNewsBackend(Path directory, boolean syncWrites, long compactThreshold) throws IOException {
+        Files.createDirectories(directory);
+        this.logPath = directory.resolve(LOG_FILE);
+        this.syncWrites = syncWrites;
+        this.compactThreshold = compactThreshold;
+        Files.deleteIfExists(directory.resolve(LOG_FILE + COMPACT_SUFFIX));
+        Files.deleteIfExists(directory.resolve(LOG_FILE + IMPORT_SUFFIX));
+        this.indexChannel = FileChannel.open(directory.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    public static FileNewsBackend open(Path directory, Supplier<List<NewsEntity>> initialData, boolean syncWrites,
+                                       long compactThreshold) throws IOException {
+        FileNewsBackend backend = new FileNewsBackend(directory, syncWrites, compactThreshold);
+        try {
+            backend.recover(initialData);
+        } catch (IOException | RuntimeException ex) {
+            backend.closeChannels();
+            throw ex;
+        }
+        return backend;
+    }
+
+    @Override
+    public synchronized List<NewsEntity> findAll() {
+        List<NewsEntity> result = new ArrayList<>();
+        for (int number = 1; number <= maxNumber && number < capacity; number++) {
+            long offset = slot(number);
+            if (offset != NO_RECORD) {
+                result.add(readEntity(number, offset - 1));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void save(NewsEntity entity) {
+        if (entity.getNumber() != null) {
+            throw new RuntimeException("News with number %s - already exists".formatted(entity.getNumber()));
+        }
+        entity.setNumber(maxNumber + 1);
+        append(put(entity));
+    }
+
+    @Override
+    public synchronized void update(NewsEntity updateEntity) {
+        if (!contains(updateEntity.getNumber())) {
+            throw new RuntimeException("News with number %s - is not exists".formatted(updateEntity.getNumber()));
+        }
+        append(put(updateEntity));
+    }
+
+    @Override
+    public synchronized boolean deleteByNumber(Integer number) {
+        if (!contains(number)) {
+            return false;
+        }
+        append(delete(number));
+        return true;
+    }
+
+    /**
+     * Переписывает журнал, оставляя только последние версии живых новостей.
+     */
+    public synchronized void compact() {
+        try {
+            Path compactPath = logPath.resolveSibling(LOG_FILE + COMPACT_SUFFIX);
+            long[] offsets = new long[maxNumber + 1];
+            long position = LOG_HEADER;
+            try (FileChannel compacted = FileChannel.open(compactPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeLogHeader(compacted, maxNumber);
+                for (int number = 1; number <= maxNumber && number < capacity; number++) {
+                    long offset = slot(number);
+                    if (offset != NO_RECORD) {
+                        ByteBuffer record = readRecord(offset - 1);
+                        offsets[number] = position + 1;
+                        position += writeFully(compacted, record, position);
+                    }
+                }
+                compacted.force(true);
+            }
+            replaceLog(compactPath);
+            journal.close();
+            journal = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            for (int number = 1; number < offsets.length && number < capacity; number++) {
+                setSlot(number, offsets[number]);
+            }
+            log.info("Журнал новостей сжат: {} -> {} байт", logLength, position);
+            logLength = position;
+            liveBytes = position - LOG_HEADER;
+            writeIndexHeader(DIRTY);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!journal.isOpen()) {
+            return;
+        }
+        journal.force(true);
+        writeIndexHeader(CLEAN);
+        index.force();
+        closeChannels();
+    }
+
+    private void recover(Supplier<List<NewsEntity>> initialData) throws IOException {
+        if (Files.exists(logPath) && Files.size(logPath) >= LOG_HEADER) {
+            journal = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recoverIndex(readLogHeader());
+        } else {
+            importInitialData(initialData);
+        }
+        writeIndexHeader(DIRTY);
+        index.force();
+    }
+
+    private void importInitialData(Supplier<List<NewsEntity>> initialData) throws IOException {
+        Path importPath = logPath.resolveSibling(LOG_FILE + IMPORT_SUFFIX);
+        journal = FileChannel.open(importPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeLogHeader(journal, 0);
+        logLength = LOG_HEADER;
+        mapIndex(INITIAL_CAPACITY, true);
+        for (NewsEntity entity : initialData.get()) {
+            append(put(entity));
+        }
+        journal.force(true);
+        journal.close();
+        replaceLog(importPath);
+        journal = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Атомарно подменяет журнал файлом {@code source} и сбрасывает на диск каталог, иначе после отключения питания
+     * переименование может откатиться.
+     */
+    private void replaceLog(Path source) throws IOException {
+        Files.move(source, logPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel directory = FileChannel.open(logPath.getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+    }
+
+    private void recoverIndex(int numberFloor) throws IOException {
+        if (indexIsClean()) {
+            mapIndex(capacityFor(readIndexHeader().getInt(INDEX_MAX_NUMBER_AT)), false);
+            logLength = index.getLong(INDEX_LOG_LENGTH_AT);
+            liveBytes = index.getLong(INDEX_LIVE_BYTES_AT);
+            maxNumber = index.getInt(INDEX_MAX_NUMBER_AT);
+            replay(logLength);
+        } else {
+            log.warn("Индекс новостей не был закрыт штатно, пересобираю его по журналу");
+            mapIndex(INITIAL_CAPACITY, true);
+            logLength = LOG_HEADER;
+            liveBytes = 0;
+            maxNumber = numberFloor;
+            replay(LOG_HEADER);
+        }
+    }
+
+    /**
+     * Применяет к индексу записи журнала начиная с {@code from} и отрезает первую битую запись и все после нее.
+     */
+    private void replay(long from) throws IOException {
+        long position = from;
+        long size = journal.size();
+        while (position + RECORD_HEADER <= size) {
+            ByteBuffer header = readFully(position, RECORD_HEADER);
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || length > MAX_RECORD || position + RECORD_HEADER + length > size) {
+                break;
+            }
+            ByteBuffer payload = readFully(position + RECORD_HEADER, length);
+            if (checksum != crc(payload)) {
+                break;
+            }
+            apply(payload, position, RECORD_HEADER + length);
+            position += RECORD_HEADER + length;
+        }
+        if (position < size) {
+            log.warn("Отрезан поврежденный хвост журнала новостей: {} байт", size - position);
+            journal.truncate(position);
+        }
+        logLength = position;
+    }
+
+    private void append(ByteBuffer payload) {
+        try {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payload.remaining());
+            record.putInt(payload.remaining()).putInt(crc(payload)).put(payload.duplicate()).flip();
+            int size = writeFully(journal, record, logLength);
+            if (syncWrites) {
+                journal.force(false);
+            }
+            apply(payload, logLength, size);
+            logLength += size;
+            writeIndexHeader(DIRTY);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        long deadBytes = logLength - LOG_HEADER - liveBytes;
+        if (deadBytes >= compactThreshold && deadBytes > liveBytes) {
+            compact();
+        }
+    }
+
+    private void apply(ByteBuffer payload, long offset, int size) throws IOException {
+        ByteBuffer body = payload.duplicate();
+        byte type = body.get();
+        int number = body.getInt();
+        if (number >= capacity) {
+            mapIndex(capacityFor(number), false);
+        }
+        long previous = slot(number);
+        if (previous != NO_RECORD) {
+            liveBytes -= RECORD_HEADER + readFully(previous - 1, Integer.BYTES).getInt();
+        }
+        if (type == PUT) {
+            setSlot(number, offset + 1);
+            liveBytes += size;
+        } else {
+            setSlot(number, NO_RECORD);
+        }
+        maxNumber = Math.max(maxNumber, number);
+    }
+
+    private boolean contains(Integer number) {
+        return number != null && number > 0 && number < capacity && slot(number) != NO_RECORD;
+    }
+
+    private long slot(int number) {
+        return index.getLong(INDEX_HEADER + number * Long.BYTES);
+    }
+
+    private void setSlot(int number, long value) {
+        index.putLong(INDEX_HEADER + number * Long.BYTES, value);
+    }
+
+    private void mapIndex(int newCapacity, boolean reset) throws IOException {
+        if (reset) {
+            indexChannel.truncate(0);
+        }
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + (long) newCapacity * Long.BYTES);
+        index.putLong(0, INDEX_MAGIC);
+        capacity = newCapacity;
+    }
+
+    private MappedByteBuffer readIndexHeader() throws IOException {
+        return indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, INDEX_HEADER);
+    }
+
+    private boolean indexIsClean() throws IOException {
+        if (indexChannel.size() < INDEX_HEADER) {
+            return false;
+        }
+        MappedByteBuffer header = readIndexHeader();
+        return header.getLong(0) == INDEX_MAGIC && header.getInt(INDEX_CLEAN_AT) == CLEAN
+                && header.getLong(INDEX_LOG_LENGTH_AT) <= journal.size()
+                && indexChannel.size() >= INDEX_HEADER + (long) capacityFor(header.getInt(INDEX_MAX_NUMBER_AT))
+                * Long.BYTES;
+    }
+
+    private void writeIndexHeader(int state) {
+        index.putLong(INDEX_LOG_LENGTH_AT, logLength);
+        index.putLong(INDEX_LIVE_BYTES_AT, liveBytes);
+        index.putInt(INDEX_MAX_NUMBER_AT, maxNumber);
+        index.putInt(INDEX_CLEAN_AT, state);
+    }
+
+    private static int capacityFor(int number) {
+        return Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(number, 1)) << 1);
+    }
+
+    private void writeLogHeader(FileChannel channel, int numberFloor) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+        header.putLong(LOG_MAGIC).putInt(numberFloor).rewind();
+        writeFully(channel, header, 0);
+    }
+
+    /**
+     * @return наибольший номер, выданный до последнего сжатия: номера удаленных новостей не выдаются повторно
+     */
+    private int readLogHeader() throws IOException {
+        ByteBuffer header = readFully(0, LOG_HEADER);
+        if (header.getLong() != LOG_MAGIC) {
+            throw new IOException("Not a news log: %s".formatted(logPath));
+        }
+        return header.getInt(LOG_NUMBER_FLOOR_AT);
+    }
+
+    private NewsEntity readEntity(int number, long offset) {
+        ByteBuffer payload = readRecord(offset);
+        payload.position(payload.position() + RECORD_HEADER + 1 + Integer.BYTES);
+        return NewsEntity.builder()
+                .number(number)
+                .title(readString(payload))
+                .text(readString(payload))
+                .author(readString(payload))
+                .build();
+    }
+
+    private ByteBuffer readRecord(long offset) {
+        try {
+            int length = readFully(offset, Integer.BYTES).getInt();
+            return readFully(offset, RECORD_HEADER + length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (journal.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of news log at %s".formatted(position));
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int size = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + size - buffer.remaining());
+        }
+        return size;
+    }
+
+    private static ByteBuffer put(NewsEntity entity) {
+        byte[] title = bytes(entity.getTitle());
+        byte[] text = bytes(entity.getText());
+        byte[] author = bytes(entity.getAuthor());
+        ByteBuffer payload = ByteBuffer.allocate(1 + Integer.BYTES + STRING_FIELDS * Integer.BYTES
+                + length(title) + length(text) + length(author));
+        payload.put(PUT).putInt(entity.getNumber());
+        putString(payload, title);
+        putString(payload, text);
+        putString(payload, author);
+        return payload.flip();
+    }
+
+    private static ByteBuffer delete(int number) {
+        return ByteBuffer.allocate(1 + Integer.BYTES).put(DELETE).putInt(number).flip();
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_STRING);
+        } else {
+            buffer.putInt(value.length).put(value);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private void closeChannels() throws IOException {
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } finally {
+            indexChannel.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.javacademy.new_york_times.repository;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Вторичный индекс автор -> отсортированный список номеров его новостей.
+ * Авторы сравниваются без учета регистра, наружу отдается написание первой новости автора.
+ */
+class NewsAuthorIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, AuthorNumbers> authors = new HashMap<>();
+
+    void add(String author, int number) {
+        String key = normalize(author);
+        if (key == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            authors.computeIfAbsent(key, k -> new AuthorNumbers(author.trim())).numbers.add(number);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String author, int number) {
+        String key = normalize(author);
+        if (key == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            AuthorNumbers numbers = authors.get(key);
+            if (numbers != null && numbers.numbers.remove(number) && numbers.numbers.isEmpty()) {
+                authors.remove(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Копия номеров новостей автора, пустая для неизвестного автора.
+     */
+    int[] find(String author) {
+        String key = normalize(author);
+        if (key == null) {
+            return new int[0];
+        }
+        lock.readLock().lock();
+        try {
+            AuthorNumbers numbers = authors.get(key);
+            return numbers == null ? new int[0] : numbers.numbers.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Номера новостей автора с позиции {@code offset}, не больше {@code limit}, и число всех его новостей.
+     * Копируется только страница, поэтому стоимость не зависит от числа новостей автора.
+     */
+    NumberSlice find(String author, int offset, int limit) {
+        String key = normalize(author);
+        if (key == null) {
+            return new NumberSlice(new int[0], 0);
+        }
+        lock.readLock().lock();
+        try {
+            AuthorNumbers numbers = authors.get(key);
+            return numbers == null ? new NumberSlice(new int[0], 0)
+                    : new NumberSlice(numbers.numbers.slice(offset, limit), numbers.numbers.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Авторы по алфавиту с числом их новостей.
+     */
+    Map<String, Integer> counts() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            authors.values().forEach(numbers -> result.put(numbers.name, numbers.numbers.size()));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String author) {
+        return author == null || author.isBlank() ? null : author.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class AuthorNumbers {
+        private final String name;
+        private final NumberPostings numbers = new NumberPostings();
+
+        private AuthorNumbers(String name) {
+            this.name = name;
+        }
+    }
+}
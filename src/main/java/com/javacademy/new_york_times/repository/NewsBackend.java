@@ -0,0 +1,20 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+
+import java.util.List;
+
+/**
+ * Место, где {@link CachedNewsStore} хранит новости. Контракт повторяет {@link NewsRepository}:
+ * {@code save} выдает новой новости номер, {@code update} и повторный {@code save} бросают исключение.
+ */
+public interface NewsBackend {
+
+    List<NewsEntity> findAll();
+
+    void save(NewsEntity entity);
+
+    void update(NewsEntity updateEntity);
+
+    boolean deleteByNumber(Integer number);
+}
@@ -0,0 +1,160 @@
+package com.javacademy.new_york_times.repository;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Упорядоченный индекс номеров новостей (дерево Фенвика над пространством номеров).
+ * Позволяет за O(log n) найти номер новости по ее позиции в общем порядке и посчитать,
+ * сколько новостей лежит до заданного номера, оставаясь верным после удалений.
+ * Читатели не блокируют писателей: чтения идут через оптимистичный {@link StampedLock}.
+ */
+class NewsNumberIndex {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    private int[] tree = new int[INITIAL_CAPACITY + 1];
+    private int size;
+
+    void add(int number) {
+        checkNumber(number);
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity(number);
+            change(number, 1);
+            size++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void remove(int number) {
+        checkNumber(number);
+        long stamp = lock.writeLock();
+        try {
+            change(number, -1);
+            size--;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.tryOptimisticRead();
+        int result = size;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                result = size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Номер новости, стоящей на позиции {@code position} (с нуля), либо -1, если такой позиции нет.
+     */
+    int numberAt(int position) {
+        long stamp = lock.tryOptimisticRead();
+        int result = numberAt(tree, size, position);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                result = numberAt(tree, size, position);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Есть ли новость с номером {@code number}. Не выделяет памяти и не берет блокировок, если нет гонки с записью.
+     */
+    boolean contains(int number) {
+        long stamp = lock.tryOptimisticRead();
+        boolean result = contains(tree, number);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                result = contains(tree, number);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Сколько новостей имеет номер меньше {@code number}.
+     */
+    int countBefore(int number) {
+        long stamp = lock.tryOptimisticRead();
+        int result = prefix(tree, number - 1);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                result = prefix(tree, number - 1);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    private void change(int number, int delta) {
+        for (int i = number; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void ensureCapacity(int number) {
+        int capacity = tree.length - 1;
+        if (number <= capacity) {
+            return;
+        }
+        int newCapacity = Integer.highestOneBit(number) << 1;
+        int[] grown = Arrays.copyOf(tree, newCapacity + 1);
+        for (int i = capacity + 1; i <= newCapacity; i++) {
+            grown[i] = prefix(tree, i) - prefix(tree, i - (i & -i));
+        }
+        tree = grown;
+    }
+
+    private static int numberAt(int[] tree, int size, int position) {
+        if (position < 0 || position >= size) {
+            return -1;
+        }
+        int capacity = tree.length - 1;
+        int current = 0;
+        int remaining = position + 1;
+        for (int step = Integer.highestOneBit(capacity); step > 0; step >>= 1) {
+            int next = current + step;
+            if (next <= capacity && tree[next] < remaining) {
+                current = next;
+                remaining -= tree[next];
+            }
+        }
+        return current + 1;
+    }
+
+    private static boolean contains(int[] tree, int number) {
+        return number >= 1 && number < tree.length && prefix(tree, number) - prefix(tree, number - 1) > 0;
+    }
+
+    private static int prefix(int[] tree, int number) {
+        int result = 0;
+        for (int i = Math.min(number, tree.length - 1); i > 0; i -= i & -i) {
+            result += tree[i];
+        }
+        return result;
+    }
+
+    private static void checkNumber(int number) {
+        if (number < 1) {
+            throw new IllegalArgumentException("News number must be positive: %s".formatted(number));
+        }
+    }
+}
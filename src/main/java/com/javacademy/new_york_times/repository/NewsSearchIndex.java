@@ -0,0 +1,118 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Инвертированный индекс новостей: слово из заголовка, текста или автора -> отсортированный список номеров новостей.
+ * Индекс обновляется по одной новости при каждой записи, изменение новости трогает только слова,
+ * которые в ней появились или пропали.
+ */
+class NewsSearchIndex {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, NumberPostings> terms = new HashMap<>();
+
+    void add(NewsEntity entity) {
+        lock.writeLock().lock();
+        try {
+            termsOf(entity).forEach(term -> terms.computeIfAbsent(term, key -> new NumberPostings())
+                    .add(entity.getNumber()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(NewsEntity entity) {
+        lock.writeLock().lock();
+        try {
+            termsOf(entity).forEach(term -> clear(terms, term, entity.getNumber()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void replace(NewsEntity previous, NewsEntity current) {
+        Set<String> before = termsOf(previous);
+        Set<String> after = termsOf(current);
+        lock.writeLock().lock();
+        try {
+            for (String term : before) {
+                if (!after.contains(term)) {
+                    clear(terms, term, previous.getNumber());
+                }
+            }
+            for (String term : after) {
+                if (!before.contains(term)) {
+                    terms.computeIfAbsent(term, key -> new NumberPostings()).add(current.getNumber());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Номера новостей, в которых есть все слова {@code queryTerms}, без слов результат пуст.
+     */
+    int[] find(Collection<String> queryTerms) {
+        if (queryTerms.isEmpty()) {
+            return new int[0];
+        }
+        lock.readLock().lock();
+        try {
+            List<NumberPostings> postings = new ArrayList<>();
+            for (String term : queryTerms) {
+                NumberPostings numbers = terms.get(term);
+                if (numbers == null) {
+                    return new int[0];
+                }
+                postings.add(numbers);
+            }
+            postings.sort(Comparator.comparingInt(NumberPostings::size));
+            int[] result = postings.get(0).toArray();
+            for (int i = 1; i < postings.size() && result.length > 0; i++) {
+                result = postings.get(i).retain(result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return TOKEN_SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static Set<String> termsOf(NewsEntity entity) {
+        Set<String> result = new HashSet<>(tokenize(entity.getTitle()));
+        result.addAll(tokenize(entity.getText()));
+        result.addAll(tokenize(entity.getAuthor()));
+        return result;
+    }
+
+    private static void clear(Map<String, NumberPostings> postings, String key, int number) {
+        NumberPostings numbers = postings.get(key);
+        if (numbers != null && numbers.remove(number) && numbers.isEmpty()) {
+            postings.remove(key);
+        }
+    }
+}
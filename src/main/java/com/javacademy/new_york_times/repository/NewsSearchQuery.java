@@ -0,0 +1,55 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Разобранный поисковый запрос: все слова должны встретиться в новости,
+ * а фразы в кавычках - идти подряд внутри заголовка, текста или автора.
+ */
+@Getter
+public final class NewsSearchQuery {
+    private static final Pattern PHRASE = Pattern.compile("\"([^\"]*)\"");
+
+    private final List<String> terms;
+    private final List<List<String>> phrases;
+    private final String author;
+
+    private NewsSearchQuery(List<String> terms, List<List<String>> phrases, String author) {
+        this.terms = terms;
+        this.phrases = phrases;
+        this.author = author;
+    }
+
+    public static NewsSearchQuery parse(String query, String author) {
+        List<List<String>> phrases = new ArrayList<>();
+        if (query != null) {
+            Matcher matcher = PHRASE.matcher(query);
+            while (matcher.find()) {
+                List<String> phrase = NewsSearchIndex.tokenize(matcher.group(1));
+                if (phrase.size() > 1) {
+                    phrases.add(phrase);
+                }
+            }
+        }
+        List<String> terms = NewsSearchIndex.tokenize(query).stream().distinct().toList();
+        return new NewsSearchQuery(terms, phrases, author == null || author.isBlank() ? null : author);
+    }
+
+    boolean hasPhrases() {
+        return !phrases.isEmpty();
+    }
+
+    boolean matchesPhrases(NewsEntity entity) {
+        List<List<String>> fields = List.of(NewsSearchIndex.tokenize(entity.getTitle()),
+                NewsSearchIndex.tokenize(entity.getText()), NewsSearchIndex.tokenize(entity.getAuthor()));
+        return phrases.stream().allMatch(phrase -> fields.stream()
+                .anyMatch(field -> Collections.indexOfSubList(field, phrase) >= 0));
+    }
+}
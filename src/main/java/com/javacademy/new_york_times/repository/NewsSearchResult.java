@@ -0,0 +1,18 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Страница результатов поиска и общее число найденных новостей.
+ * Для запроса с фразами число - верхняя граница, если кандидаты проверены не до конца.
+ */
+@Getter
+@AllArgsConstructor
+public class NewsSearchResult {
+    private final List<NewsEntity> content;
+    private final int total;
+}
@@ -0,0 +1,29 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+
+import java.util.stream.Stream;
+
+/**
+ * Упорядоченная по номерам копия новостей внутри {@link CachedNewsStore}.
+ * Чтения не берут блокировок, записи по одному номеру приходят строго по очереди.
+ */
+interface NewsSnapshot {
+
+    NewsEntity get(int number);
+
+    /**
+     * @return предыдущая версия новости или null
+     */
+    NewsEntity put(NewsEntity entity);
+
+    /**
+     * @return удаленная новость или null
+     */
+    NewsEntity remove(int number);
+
+    /**
+     * Новости с номерами от {@code fromNumber} до {@code toNumber} включительно в порядке номеров.
+     */
+    Stream<NewsEntity> range(int fromNumber, int toNumber);
+}
@@ -0,0 +1,20 @@
+package com.javacademy.new_york_times.repository;
+
+/**
+ * Режим согласования записей в {@link CachedNewsStore}.
+ * Чтения в обоих режимах идут из одной и той же копии в памяти на {@link java.util.concurrent.ConcurrentSkipListMap}
+ * (или компактной копии, см. {@link NewsStoreLayout}) без блокировок, режимы отличаются только блокировками записей.
+ * Отдельного режима копирования при записи нет: копия всей карты на каждую запись стоит O(n),
+ * а конкурентная копия уже не дает читателям блокировать писателей.
+ */
+public enum NewsStoreConcurrency {
+    /**
+     * Записи по разным номерам идут параллельно, по одному номеру - строго по очереди.
+     */
+    STRIPED,
+    /**
+     * Все записи выполняются одним писателем за раз, читатели по-прежнему не ждут: копия в памяти
+     * служит единственным источником чтений, а репозиторий только принимает записи.
+     */
+    SINGLE_WRITER
+}
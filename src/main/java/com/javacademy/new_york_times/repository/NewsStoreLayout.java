@@ -0,0 +1,18 @@
+package com.javacademy.new_york_times.repository;
+
+/**
+ * Способ хранения копии новостей в {@link CachedNewsStore}.
+ */
+public enum NewsStoreLayout {
+    /**
+     * Сами {@link com.javacademy.new_york_times.entity.NewsEntity}
+     * в {@link java.util.concurrent.ConcurrentSkipListMap}.
+     * Чтение ничего не создает, но каждая новость стоит нескольких объектов.
+     */
+    ENTITY,
+    /**
+     * Массив по номерам, тексты в UTF-8, авторы в словаре.
+     * Меньше памяти на новость ценой декодирования строк на каждом чтении.
+     */
+    COMPACT
+}
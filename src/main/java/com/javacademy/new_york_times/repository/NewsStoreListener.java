@@ -0,0 +1,40 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+
+import java.util.List;
+
+/**
+ * Получает записи {@link CachedNewsStore} сразу после их применения.
+ * Вызывается под блокировкой записи, поэтому для одной новости порядок вызовов совпадает с порядком записей.
+ * Реализация должна быть быстрой и не должна обращаться к хранилищу на запись.
+ */
+public interface NewsStoreListener {
+
+    void onSaved(NewsEntity entity);
+
+    /**
+     * Пакет из {@link CachedNewsStore#saveAll}: все сохраненные новости, при сбое - сохраненная до него часть.
+     */
+    default void onSavedAll(List<NewsEntity> entities) {
+        entities.forEach(this::onSaved);
+    }
+
+    void onUpdated(NewsEntity entity);
+
+    /**
+     * Пакет из {@link CachedNewsStore#updateAll}: все обновленные новости, при сбое - обновленная до него часть.
+     */
+    default void onUpdatedAll(List<NewsEntity> entities) {
+        entities.forEach(this::onUpdated);
+    }
+
+    void onDeleted(Integer number);
+
+    /**
+     * Пакет из {@link CachedNewsStore#deleteAll}: номера удаленных новостей, при сбое - удаленных до него.
+     */
+    default void onDeletedAll(List<Integer> numbers) {
+        numbers.forEach(this::onDeleted);
+    }
+}
@@ -0,0 +1,75 @@
+package com.javacademy.new_york_times.repository;
+
+import java.util.Collection;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Блокировки записей в {@link CachedNewsStore}.
+ * Блокировка номера держится на всю пару "репозиторий + копия в памяти", чтобы они не расходились.
+ * Сам {@link NewsRepository} хранит данные в {@link java.util.TreeMap}, поэтому обращения к нему
+ * дополнительно проходят через одну короткую общую блокировку.
+ */
+class NewsStoreLocks {
+    private final Lock repositoryLock = new ReentrantLock();
+    private final Lock[] stripes;
+
+    NewsStoreLocks(NewsStoreConcurrency concurrency, int lockStripes) {
+        if (lockStripes < 1) {
+            throw new IllegalArgumentException("Lock stripes must be positive: %s".formatted(lockStripes));
+        }
+        int count = concurrency == NewsStoreConcurrency.STRIPED ? lockStripes : 1;
+        stripes = new Lock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    <T> T withNumber(Integer number, Supplier<T> action) {
+        return withLock(stripes[stripe(number)], action);
+    }
+
+    /**
+     * Блокировки всех номеров пакета. Полосы берутся по возрастанию, поэтому пакеты не ждут друг друга по кругу.
+     */
+    <T> T withNumbers(Collection<Integer> numbers, Supplier<T> action) {
+        int[] indexes = numbers.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    <T> T withNewNumber(Supplier<T> action) {
+        if (stripes.length == 1) {
+            return withLock(stripes[0], () -> withRepository(action));
+        }
+        return withRepository(action);
+    }
+
+    <T> T withRepository(Supplier<T> action) {
+        return withLock(repositoryLock, action);
+    }
+
+    private int stripe(Integer number) {
+        return Math.floorMod(number.hashCode(), stripes.length);
+    }
+
+    private static <T> T withLock(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.javacademy.new_york_times.repository;
+
+import java.util.Arrays;
+
+/**
+ * Отсортированный список номеров новостей в массиве {@code int}.
+ * Память пропорциональна числу номеров, а не их величине. Новые номера обычно больше всех прежних
+ * и дописываются в конец, вставка в середину и удаление сдвигают хвост массива.
+ * Не потокобезопасен, доступ согласует владелец.
+ */
+final class NumberPostings {
+    private static final int INITIAL_CAPACITY = 2;
+
+    private int[] numbers = new int[INITIAL_CAPACITY];
+    private int size;
+
+    void add(int number) {
+        if (size > 0 && numbers[size - 1] < number) {
+            ensureCapacity();
+            numbers[size++] = number;
+            return;
+        }
+        int position = Arrays.binarySearch(numbers, 0, size, number);
+        if (position >= 0) {
+            return;
+        }
+        int insertAt = -position - 1;
+        ensureCapacity();
+        System.arraycopy(numbers, insertAt, numbers, insertAt + 1, size - insertAt);
+        numbers[insertAt] = number;
+        size++;
+    }
+
+    boolean remove(int number) {
+        int position = Arrays.binarySearch(numbers, 0, size, number);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(numbers, position + 1, numbers, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(int number) {
+        return Arrays.binarySearch(numbers, 0, size, number) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(numbers, size);
+    }
+
+    /**
+     * Номера с позиции {@code offset}, не больше {@code limit} штук: копируется только эта часть.
+     */
+    int[] slice(int offset, int limit) {
+        int from = Math.min(offset, size);
+        return Arrays.copyOfRange(numbers, from, (int) Math.min((long) from + limit, size));
+    }
+
+    /**
+     * Номера из {@code candidates}, которые есть и в этом списке, в том же порядке.
+     */
+    int[] retain(int[] candidates) {
+        return Arrays.stream(candidates).filter(this::contains).toArray();
+    }
+
+    /**
+     * Пересечение двух отсортированных массивов номеров.
+     */
+    static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void ensureCapacity() {
+        if (size == numbers.length) {
+            numbers = Arrays.copyOf(numbers, size * 2);
+        }
+    }
+}
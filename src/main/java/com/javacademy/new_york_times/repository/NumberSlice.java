@@ -0,0 +1,14 @@
+package com.javacademy.new_york_times.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Часть списка номеров для одной страницы и размер всего списка.
+ */
+@Getter
+@AllArgsConstructor
+final class NumberSlice {
+    private final int[] numbers;
+    private final int total;
+}
@@ -0,0 +1,34 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Новости в {@link NewsRepository}: живут только в памяти и теряются при перезапуске.
+ */
+@RequiredArgsConstructor
+public class RepositoryNewsBackend implements NewsBackend {
+    private final NewsRepository newsRepository;
+
+    @Override
+    public List<NewsEntity> findAll() {
+        return newsRepository.findAll();
+    }
+
+    @Override
+    public void save(NewsEntity entity) {
+        newsRepository.save(entity);
+    }
+
+    @Override
+    public void update(NewsEntity updateEntity) {
+        newsRepository.update(updateEntity);
+    }
+
+    @Override
+    public boolean deleteByNumber(Integer number) {
+        return newsRepository.deleteByNumber(number);
+    }
+}
@@ -0,0 +1,91 @@
+package com.javacademy.new_york_times.service;
+
+import com.javacademy.new_york_times.config.NewsCacheProperties;
+import com.javacademy.new_york_times.exception.NewsNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_ID;
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_PAGE;
+
+/**
+ * Прогрев кэшей при старте и фоновое обновление популярных записей.
+ * Прогрев идет в {@link ApplicationRunner}, то есть до перехода сервиса в состояние готовности
+ * ({@code /actuator/health/readiness}): {@code news_by_id} заполняется одним проходом по хранилищу,
+ * первые {@code news.cache.warmup-pages} страниц параллельно считаются на {@code applicationTaskExecutor}.
+ * Раз в {@code news.cache.refresh-interval} самые популярные записи обоих кэшей перечитываются,
+ * чтобы они не истекали под нагрузкой и пользователи не видели холодных промахов.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NewsCacheWarmer implements ApplicationRunner {
+    private final NewsService newsService;
+    private final CacheManager cacheManager;
+    private final NewsCacheProperties properties;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isWarmupEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        AtomicInteger pages = new AtomicInteger();
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        CompletableFuture<Integer> news = CompletableFuture.supplyAsync(
+                () -> newsService.warmUpNews(properties.getWarmupNews()), applicationTaskExecutor);
+        tasks.add(news);
+        for (int page = 0; page < properties.getWarmupPages(); page++) {
+            int pageNumber = page;
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    newsService.findAll(pageNumber);
+                    pages.incrementAndGet();
+                } catch (NewsNotFoundException ex) {
+                    log.debug("Страницы {} нет, прогрев ее пропущен", pageNumber);
+                }
+            }, applicationTaskExecutor));
+        }
+        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        log.info("Кэши прогреты за {} мс: {} новостей, {} страниц",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), news.join(), pages.get());
+    }
+
+    @Scheduled(fixedDelayString = "${news.cache.refresh-interval:PT1M}",
+            initialDelayString = "${news.cache.refresh-interval:PT1M}")
+    public void refreshHotKeys() {
+        hottest(NEWS_BY_PAGE).forEach(page -> newsService.refreshPage((Integer) page));
+        hottest(NEWS_BY_ID).forEach(number -> newsService.refreshNews((Integer) number));
+    }
+
+    /**
+     * Ключи самых популярных записей кэша по оценке Caffeine. Для других реализаций кэша обновления нет.
+     */
+    private Set<Object> hottest(String cacheName) {
+        int limit = properties.getRefreshHotKeys();
+        if (limit <= 0 || !(cacheManager.getCache(cacheName).getNativeCache()
+                instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return Set.of();
+        }
+        @SuppressWarnings("unchecked")
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache;
+        return caffeine.policy().eviction()
+                .map(eviction -> eviction.hottest(limit).keySet())
+                .orElse(Set.of());
+    }
+}
@@ -9,7 +9,13 @@ public enum NewsErrorType {
     NO_NEWS_WITH_NUMBER("Нет новости с таким номером"),
     NO_NEWS_WITH_PAGE_NUMBER("Нет страницы новости с таким номером"),
     NO_NEWS_WITH_NEXT("Нет новости с таким номером либо текст новости отсутствует"),
-    NO_NEWS_WITH_AUTHOR("Нет новости с таким номером либо автор новости отсутствует");
+    NO_NEWS_WITH_AUTHOR("Нет новости с таким номером либо автор новости отсутствует"),
+    NO_NEWS_NUMBER("Не указан номер новости"),
+    NO_NEWS_DATA("Не переданы данные новости"),
+    NEWS_REVISION_MISMATCH("Новость уже изменена, перечитайте ее и повторите запрос"),
+    NEWS_SERVICE_BUSY("Сервис новостей перегружен, повторите запрос позже"),
+    NEWS_RATE_LIMITED("Слишком много запросов от клиента, повторите запрос позже"),
+    NEWS_CHANGES_EXPIRED("Изменений после этого номера нет в журнале, выполните полную синхронизацию");
 
     private final String message;
 }
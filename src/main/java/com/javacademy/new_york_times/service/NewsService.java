@@ -1,20 +1,60 @@
 package com.javacademy.new_york_times.service;
 
+import com.javacademy.new_york_times.cache.SingleFlightLoader;
+import com.javacademy.new_york_times.changes.NewsChangeLog;
+import com.javacademy.new_york_times.config.NewsChangesProperties;
+import com.javacademy.new_york_times.config.NewsPageProperties;
+import com.javacademy.new_york_times.dto.NewsAuthorDto;
+import com.javacademy.new_york_times.dto.NewsBatchResultDto;
+import com.javacademy.new_york_times.dto.NewsChangesDto;
+import com.javacademy.new_york_times.dto.NewsCursorPageDto;
 import com.javacademy.new_york_times.dto.NewsDto;
 import com.javacademy.new_york_times.dto.NewsPageDto;
 import com.javacademy.new_york_times.entity.NewsEntity;
 import com.javacademy.new_york_times.exception.NewsNotFoundAuthorException;
 import com.javacademy.new_york_times.exception.NewsNotFoundException;
 import com.javacademy.new_york_times.exception.NewsNotFoundTextException;
+import com.javacademy.new_york_times.exception.NewsRevisionMismatchException;
 import com.javacademy.new_york_times.mapper.NewsMapper;
 import com.javacademy.new_york_times.mapper.NewsPatchMapper;
-import com.javacademy.new_york_times.repository.NewsRepository;
+import com.javacademy.new_york_times.repository.CachedNewsStore;
+import com.javacademy.new_york_times.repository.NewsSearchQuery;
+import com.javacademy.new_york_times.repository.NewsSearchResult;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
-import java.util.Comparator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_ID;
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_PAGE;
+import static com.javacademy.new_york_times.service.NewsErrorType.NEWS_REVISION_MISMATCH;
+import static com.javacademy.new_york_times.service.NewsErrorType.NO_NEWS_DATA;
+import static com.javacademy.new_york_times.service.NewsErrorType.NO_NEWS_NUMBER;
 import static com.javacademy.new_york_times.service.NewsErrorType.NO_NEWS_WITH_AUTHOR;
 import static com.javacademy.new_york_times.service.NewsErrorType.NO_NEWS_WITH_NEXT;
 import static com.javacademy.new_york_times.service.NewsErrorType.NO_NEWS_WITH_NUMBER;
@@ -22,58 +62,377 @@ import static com.javacademy.new_york_times.service.NewsErrorType.NO_NEWS_WITH_P
 
 
 @Service
+@Timed("news.service")
 @RequiredArgsConstructor
 public class NewsService {
-    private static final int PAGE_SIZE = 10;
     private static final int COUNT_PAGE_NUMBER_WITHOUT_ZERO = 1;
+    private static final char NDJSON_SEPARATOR = '\n';
 
-    private final NewsRepository newsRepository;
+    private final CachedNewsStore newsStore;
     private final NewsMapper newsMapper;
     private final NewsPatchMapper newsPatchMapper;
+    private final NewsPageProperties pageProperties;
+    private final SingleFlightLoader singleFlightLoader;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final NewsChangeLog changeLog;
+    private final NewsChangesProperties changesProperties;
+    private final Map<NewsErrorType, Counter> notFoundCounters = new EnumMap<>(NewsErrorType.class);
+
+    @PostConstruct
+    public void registerNotFoundCounters() {
+        for (NewsErrorType errorType : NewsErrorType.values()) {
+            notFoundCounters.put(errorType, meterRegistry.counter("news.not_found", "type", errorType.name()));
+        }
+    }
 
     public void save(NewsDto dto) {
-        newsRepository.save(newsMapper.toEntity(dto));
+        NewsEntity entity = newsMapper.toEntity(dto);
+        newsStore.save(entity);
+    }
+
+    public List<NewsBatchResultDto> saveAll(List<NewsDto> dtos) {
+        List<NewsEntity> entities = dtos.stream()
+                .map(dto -> dto != null && dto.getNumber() == null ? newsMapper.toEntity(dto) : null)
+                .toList();
+        List<NewsEntity> newEntities = entities.stream().filter(Objects::nonNull).toList();
+        newsStore.saveAll(newEntities);
+
+        List<NewsBatchResultDto> results = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            NewsEntity entity = entities.get(i);
+            NewsDto dto = dtos.get(i);
+            if (entity != null) {
+                results.add(batchResult(entity.getNumber(), HttpStatus.CREATED, null));
+            } else if (dto == null) {
+                results.add(batchResult(null, HttpStatus.BAD_REQUEST, NO_NEWS_DATA.getMessage()));
+            } else {
+                results.add(batchResult(dto.getNumber(), HttpStatus.BAD_REQUEST,
+                        "News with number %s - already exists".formatted(dto.getNumber())));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Изменения пакета применяются одним {@link CachedNewsStore#updateAll}. Новость, которую удалили между
+     * чтением и записью, получает 404, остальные ошибки прерывают запрос целиком.
+     */
+    public List<NewsBatchResultDto> patchAll(List<NewsDto> dtos) {
+        List<NewsEntity> entities = new ArrayList<>(dtos.size());
+        for (NewsDto newDto : dtos) {
+            Integer number = newDto == null ? null : newDto.getNumber();
+            Optional<NewsDto> oldDto = number == null ? Optional.empty() : findCached(number);
+            entities.add(oldDto.map(dto -> newsMapper.toEntity(newsPatchMapper.convertToNewsDtoForPatch(dto, newDto)))
+                    .orElse(null));
+        }
+        Set<Integer> updated = newsStore.updateAll(entities.stream().filter(Objects::nonNull).toList()).stream()
+                .map(NewsEntity::getNumber)
+                .collect(Collectors.toSet());
+
+        List<NewsBatchResultDto> results = new ArrayList<>(dtos.size());
+        for (NewsDto newDto : dtos) {
+            Integer number = newDto == null ? null : newDto.getNumber();
+            if (number == null) {
+                results.add(batchResult(null, HttpStatus.BAD_REQUEST, NO_NEWS_NUMBER.getMessage()));
+            } else if (updated.contains(number)) {
+                results.add(batchResult(number, HttpStatus.OK, null));
+            } else {
+                countNotFound(NO_NEWS_WITH_NUMBER);
+                results.add(batchResult(number, HttpStatus.NOT_FOUND, NO_NEWS_WITH_NUMBER.getMessage()));
+            }
+        }
+        return results;
     }
 
+    public List<NewsBatchResultDto> deleteAll(List<Integer> numbers) {
+        Set<Integer> deleted = new HashSet<>(newsStore.deleteAll(numbers.stream().filter(Objects::nonNull).toList()));
+        List<NewsBatchResultDto> results = new ArrayList<>(numbers.size());
+        for (Integer number : numbers) {
+            if (number == null) {
+                results.add(batchResult(null, HttpStatus.BAD_REQUEST, NO_NEWS_NUMBER.getMessage()));
+            } else if (deleted.remove(number)) {
+                results.add(batchResult(number, HttpStatus.OK, null));
+            } else {
+                results.add(batchResult(number, HttpStatus.NOT_FOUND, NO_NEWS_WITH_NUMBER.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
     public NewsPageDto<NewsDto> findAll(int pageNumber) {
-        List<NewsEntity> newsEntityList = newsRepository.findAll();
-        int totalPages = (int) Math.ceil(newsEntityList.size() * 1.00 / PAGE_SIZE);
+        return cached(NEWS_BY_PAGE, pageNumber, NewsPageDto.class, () -> loadPage(pageNumber));
+    }
+
+    private NewsPageDto<NewsDto> loadPage(int pageNumber) {
+        int pageSize = pageProperties.getSize();
+        int totalPages = (int) Math.ceil(newsStore.count() * 1.00 / pageSize);
         if (totalPages < pageNumber) {
-            throw new NewsNotFoundException(NO_NEWS_WITH_PAGE_NUMBER);
+            throw notFound(NO_NEWS_WITH_PAGE_NUMBER, NewsNotFoundException::of);
         }
-        List<NewsDto> newsDtoListByPage = newsMapper.toDtos(newsEntityList.stream()
-                .sorted(Comparator.comparing(NewsEntity::getNumber))
-                .skip(PAGE_SIZE * pageNumber).limit(PAGE_SIZE).toList());
+        List<NewsDto> newsDtoListByPage = newsMapper.toDtos(newsStore.findPage(pageSize * pageNumber, pageSize));
 
         return new NewsPageDto<>(newsDtoListByPage, totalPages,
-                pageNumber + COUNT_PAGE_NUMBER_WITHOUT_ZERO, PAGE_SIZE, newsDtoListByPage.size());
+                pageNumber + COUNT_PAGE_NUMBER_WITHOUT_ZERO, pageSize, newsDtoListByPage.size());
+    }
+
+    public NewsPageDto<NewsDto> search(String query, String author, int pageNumber) {
+        int pageSize = pageProperties.getSize();
+        return toPage(newsStore.search(NewsSearchQuery.parse(query, author), pageSize * pageNumber, pageSize),
+                pageNumber);
+    }
+
+    public NewsPageDto<NewsDto> findByAuthor(String author, int pageNumber) {
+        int pageSize = pageProperties.getSize();
+        return toPage(newsStore.findByAuthor(author, pageSize * pageNumber, pageSize), pageNumber);
+    }
+
+    public List<NewsAuthorDto> findAuthors() {
+        return newsStore.countByAuthor().entrySet().stream()
+                .map(entry -> new NewsAuthorDto(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private NewsPageDto<NewsDto> toPage(NewsSearchResult result, int pageNumber) {
+        int pageSize = pageProperties.getSize();
+        int totalPages = (int) Math.ceil(result.getTotal() * 1.00 / pageSize);
+        if (totalPages < pageNumber) {
+            throw notFound(NO_NEWS_WITH_PAGE_NUMBER, NewsNotFoundException::of);
+        }
+        List<NewsDto> content = newsMapper.toDtos(result.getContent());
+        return new NewsPageDto<>(content, totalPages, pageNumber + COUNT_PAGE_NUMBER_WITHOUT_ZERO,
+                pageSize, content.size());
+    }
+
+    public NewsCursorPageDto<NewsDto> findAfter(Integer afterNumber, Integer limit) {
+        int pageLimit = limit == null ? pageProperties.getDefaultLimit()
+                : Math.max(1, Math.min(limit, pageProperties.getMaxLimit()));
+        List<NewsEntity> newsEntityList = newsStore.findAfter(afterNumber, pageLimit + 1);
+        boolean hasNext = newsEntityList.size() > pageLimit;
+        List<NewsDto> newsDtoList = newsMapper.toDtos(hasNext ? newsEntityList.subList(0, pageLimit) : newsEntityList);
+        Integer nextCursor = hasNext ? newsDtoList.get(newsDtoList.size() - 1).getNumber() : null;
+
+        return new NewsCursorPageDto<>(newsDtoList, nextCursor, pageLimit, newsDtoList.size());
+    }
+
+    /**
+     * Пишет новости из диапазона номеров в {@code out} построчно в формате NDJSON.
+     * Память не зависит от числа новостей: каждая новость сериализуется сразу после чтения.
+     */
+    public void export(Integer fromNumber, Integer toNumber, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             Stream<NewsEntity> entities = newsStore.streamRange(fromNumber, toNumber)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (NewsEntity entity : (Iterable<NewsEntity>) entities::iterator) {
+                generator.writeObject(newsMapper.toDto(entity));
+                generator.writeRaw(NDJSON_SEPARATOR);
+            }
+        }
+    }
+
+    /**
+     * Изменения с номером больше {@code since}. Если их пока нет, ждет до {@code waitSeconds} секунд,
+     * по умолчанию и не дольше {@code news.changes.max-wait}.
+     */
+    public CompletableFuture<NewsChangesDto> findChanges(long since, Integer limit, Integer waitSeconds) {
+        int changesLimit = limit == null ? changesProperties.getDefaultLimit()
+                : Math.max(1, Math.min(limit, changesProperties.getMaxLimit()));
+        Duration maxWait = changesProperties.getMaxWait();
+        Duration wait = waitSeconds == null ? maxWait : Duration.ofSeconds(Math.max(0, waitSeconds));
+        return changeLog.changesAfter(since, changesLimit, wait.compareTo(maxWait) > 0 ? maxWait : wait);
     }
 
     public NewsDto findByNumber(Integer number) {
-        return newsMapper.toDto(newsRepository.findByNumber(number)
-                .orElseThrow(() -> new NewsNotFoundException(NO_NEWS_WITH_NUMBER)));
+        return findCached(number).orElseThrow(() -> notFound(NO_NEWS_WITH_NUMBER, NewsNotFoundException::of));
     }
 
     public boolean deleteByNumber(Integer number) {
-        return newsRepository.deleteByNumber(number);
+        return newsStore.deleteByNumber(number);
     }
 
-    private void update(NewsDto dto) {
-        newsRepository.update(newsMapper.toEntity(dto));
+    private NewsDto update(NewsDto dto) {
+        NewsEntity entity = newsMapper.toEntity(dto);
+        newsStore.update(entity);
+        return newsMapper.toDto(entity);
     }
 
-    public void updateForPatch(NewsDto oldDto, NewsDto newDto) {
+    public NewsDto updateForPatch(NewsDto oldDto, NewsDto newDto) {
         NewsDto newsDto = newsPatchMapper.convertToNewsDtoForPatch(oldDto, newDto);
-        this.update(newsDto);
+        return this.update(newsDto);
+    }
+
+    /**
+     * То же, что {@link #updateForPatch}, но только если новость не менялась с ревизии {@code oldDto}.
+     */
+    public NewsDto updateForPatchIfUnchanged(NewsDto oldDto, NewsDto newDto) {
+        NewsEntity entity = newsMapper.toEntity(newsPatchMapper.convertToNewsDtoForPatch(oldDto, newDto));
+        if (!newsStore.updateIfRevision(entity, oldDto.getRevision())) {
+            throw new NewsRevisionMismatchException(NEWS_REVISION_MISMATCH);
+        }
+        return newsMapper.toDto(entity);
     }
 
     public String getNewsText(Integer newsNumber) {
-        return newsRepository.findByNumber(newsNumber).map(NewsEntity::getText)
-                .orElseThrow(() -> new NewsNotFoundTextException(NO_NEWS_WITH_NEXT));
+        return findCached(newsNumber).map(NewsDto::getText)
+                .orElseThrow(() -> notFound(NO_NEWS_WITH_NEXT, NewsNotFoundTextException::of));
     }
 
     public String getNewsAuthor(Integer newsNumber) {
-        return newsRepository.findByNumber(newsNumber).map(NewsEntity::getAuthor)
-                .orElseThrow(() -> new NewsNotFoundAuthorException(NO_NEWS_WITH_AUTHOR));
+        return findCached(newsNumber).map(NewsDto::getAuthor)
+                .orElseThrow(() -> notFound(NO_NEWS_WITH_AUTHOR, NewsNotFoundAuthorException::of));
+    }
+
+    /**
+     * Кладет в {@code news_by_id} первые {@code limit} новостей за один проход по хранилищу.
+     *
+     * @return сколько новостей положено
+     */
+    public int warmUpNews(int limit) {
+        Cache cache = cacheManager.getCache(NEWS_BY_ID);
+        int count = 0;
+        try (Stream<NewsEntity> entities = newsStore.streamRange(null, null)) {
+            for (NewsEntity entity : (Iterable<NewsEntity>) entities.limit(limit)::iterator) {
+                putIfAbsent(cache, entity.getNumber(), newsMapper.toDto(entity));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Перечитывает страницу {@code news_by_page}, если она закэширована, и тем самым продлевает ей срок жизни.
+     */
+    public void refreshPage(Integer pageNumber) {
+        refresh(NEWS_BY_PAGE, pageNumber, () -> loadPage(pageNumber));
+    }
+
+    /**
+     * Перечитывает новость {@code news_by_id}, если она закэширована, и тем самым продлевает ей срок жизни.
+     */
+    public void refreshNews(Integer number) {
+        refresh(NEWS_BY_ID, number, () -> newsStore.findByNumber(number).map(newsMapper::toDto).orElse(null));
+    }
+
+    /**
+     * Заменяет запись кэша свежей, только если за время чтения ее не сбросили и не перезаписали:
+     * иначе обновление затерло бы более новую версию. Чтение записи не засчитывается ей в популярность.
+     */
+    @SuppressWarnings("unchecked")
+    private void refresh(String cacheName, Object key, Supplier<?> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return;
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeine =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache;
+        Object current = caffeine.policy().getIfPresentQuietly(key);
+        if (current == null) {
+            return;
+        }
+        long generation = newsStore.writeGeneration();
+        Object fresh;
+        try {
+            fresh = loader.get();
+        } catch (NewsNotFoundException ex) {
+            fresh = null;
+        }
+        if (newsStore.writeGeneration() != generation) {
+            return;
+        }
+        ConcurrentMap<Object, Object> map = caffeine.asMap();
+        if (fresh == null) {
+            map.remove(key, current);
+        } else if (map.replace(key, current, fresh) && newsStore.writeGeneration() != generation) {
+            map.remove(key, fresh);
+        }
+    }
+
+    /**
+     * Заранее созданное исключение "не найдено" с учетом в счетчике {@code news.not_found} по типу ошибки.
+     */
+    private <E extends RuntimeException> E notFound(NewsErrorType errorType,
+                                                   Function<NewsErrorType, E> exceptionFactory) {
+        countNotFound(errorType);
+        return exceptionFactory.apply(errorType);
+    }
+
+    private void countNotFound(NewsErrorType errorType) {
+        notFoundCounters.get(errorType).increment();
+    }
+
+    private static NewsBatchResultDto batchResult(Integer number, HttpStatus status, String message) {
+        return NewsBatchResultDto.builder()
+                .number(number)
+                .status(status.value())
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Новость из {@code news_by_id}, при промахе - из хранилища с записью в кэш.
+     * Карточка новости, ее текст и автор читаются из одной и той же записи кэша.
+     * Номера, которых нет в хранилище, отсекаются по его индексу до кэша и без выделения памяти:
+     * иначе каждый такой запрос проходил бы промах кэша и однократную загрузку.
+     */
+    private Optional<NewsDto> findCached(Integer number) {
+        if (number == null || !newsStore.contains(number)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cached(NEWS_BY_ID, number, NewsDto.class,
+                () -> newsStore.findByNumber(number).map(newsMapper::toDto).orElse(null)));
+    }
+
+    /**
+     * Значение из кэша {@code cacheName}; при промахе загружается один раз на ключ и кладется в кэш,
+     * если за время загрузки туда не успела записать более свежая версия.
+     * Если за время загрузки в хранилище была запись, значение отдается, но в кэш не попадает:
+     * запись могла сбросить ключ раньше, чем загруженная до нее версия легла бы в кэш.
+     */
+    private <T> T cached(String cacheName, Object key, Class<T> type, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        T cached = cache.get(key, type);
+        if (cached != null) {
+            return cached;
+        }
+        return singleFlightLoader.load(cacheName, key, () -> {
+            long generation = newsStore.writeGeneration();
+            T loaded = loader.get();
+            if (loaded != null && newsStore.writeGeneration() == generation) {
+                putIfAbsent(cache, key, loaded);
+                if (newsStore.writeGeneration() != generation) {
+                    evictIfSame(cache, key, loaded);
+                }
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Убирает из кэша значение, загруженное во время записи. Загрузки лежат только в Caffeine,
+     * у {@code TwoLevelCache} - только в его локальном уровне, поэтому другие узлы не затрагиваются.
+     */
+    @SuppressWarnings("unchecked")
+    private static void evictIfSame(Cache cache, Object key, Object value) {
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).asMap().remove(key, value);
+        } else {
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * {@link Cache#putIfAbsent} у Caffeine реализован через {@code get(key, loader)} и засчитывается
+     * в статистику кэша как лишний промах, поэтому для Caffeine запись идет напрямую в его map.
+     * У {@code TwoLevelCache} это его локальный уровень: загрузки в общий уровень не попадают.
+     */
+    @SuppressWarnings("unchecked")
+    private static void putIfAbsent(Cache cache, Object key, Object value) {
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).asMap().putIfAbsent(key, value);
+        } else {
+            cache.putIfAbsent(key, value);
+        }
     }
 }
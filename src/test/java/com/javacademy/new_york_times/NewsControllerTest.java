@@ -1,16 +1,27 @@
 package com.javacademy.new_york_times;
 
+import com.javacademy.new_york_times.controller.NewsController;
+import com.javacademy.new_york_times.controller.NewsResponseEncoder;
+import com.javacademy.new_york_times.dto.NewsBatchResultDto;
+import com.javacademy.new_york_times.dto.NewsCursorPageDto;
 import com.javacademy.new_york_times.dto.NewsDto;
 import com.javacademy.new_york_times.dto.NewsPageDto;
 import com.javacademy.new_york_times.entity.NewsEntity;
 import com.javacademy.new_york_times.mapper.NewsMapper;
+import com.javacademy.new_york_times.repository.CachedNewsStore;
 import com.javacademy.new_york_times.repository.NewsRepository;
+import com.javacademy.new_york_times.service.NewsCacheWarmer;
+import com.javacademy.new_york_times.service.NewsService;
 import io.restassured.RestAssured;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.builder.ResponseSpecBuilder;
 import io.restassured.common.mapper.TypeRef;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.filter.log.LogDetail;
 import io.restassured.http.ContentType;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.specification.ResponseSpecification;
 import org.junit.jupiter.api.DisplayName;
@@ -18,24 +29,65 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.annotation.DirtiesContext;
-
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_ID;
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_PAGE;
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
 @AutoConfigureMockMvc
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 public class NewsControllerTest {
     private static final int PAGE_SIZE = 10;
+    private static final int CURSOR_LIMIT = 3;
     private static final int MINIMUM_PAGE_LIMIT = 0;
     private static final int NUMBER_PAGE_START = 1;
     private static final int NUMBER_NEWS_IN_SCOPE_ONE = 1;
     private static final int NUMBER_NEWS_IN_SCOPE_TWO = 2;
     private static final int NUMBER_NEWS_OUT_OF_SCOPE = 2222;
+    private static final String PATH_BATCH = "/batch";
+    private static final String PATH_EXPORT = "/export";
+    private static final String PATH_SEARCH = "/search";
+    private static final String PATH_AUTHORS = "/authors";
+    private static final String PATH_CHANGES = "/changes";
+    private static final int CHANGES_WAIT_SECONDS = 10;
+    private static final String PATH_READINESS = "/actuator/health/readiness";
     private static final String PATH_TEMPLATE_FOR_ID = "/{id}";
     private static final String PATH_TEMPLATE_FOR_NEWS_AUTHOR = "/{id}/author";
     private static final String PATH_TEMPLATE_FOR_NEWS_TEXT = "/{id}/text";
@@ -53,6 +105,16 @@ public class NewsControllerTest {
     private NewsRepository newsRepository;
     @Autowired
     private NewsMapper newsMapper;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private CachedNewsStore newsStore;
+    @Autowired
+    private NewsService newsService;
+    @Autowired
+    private NewsCacheWarmer cacheWarmer;
+    @Autowired
+    private NewsResponseEncoder responseEncoder;
 
     @Test
     @DisplayName("Успешное создание новости")
@@ -130,6 +192,82 @@ public class NewsControllerTest {
         assertFalse(actual);
     }
 
+    @Test
+    @DisplayName("Пакетное создание новостей с результатом по каждой, включая пустые и уже созданные")
+    public void createBatch() {
+        int countBefore = newsStore.count();
+        NewsDto newNews = NewsDto.builder()
+                .title("batch")
+                .text("batch text")
+                .author("batch author")
+                .build();
+        NewsDto existingNews = NewsDto.builder()
+                .number(NUMBER_NEWS_IN_SCOPE_ONE)
+                .title("existing")
+                .build();
+
+        List<NewsBatchResultDto> actual = RestAssured.given(requestSpecification)
+                .body(Arrays.asList(newNews, null, existingNews))
+                .post(PATH_BATCH)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .body()
+                .as(new TypeRef<>() {
+                });
+
+        assertEquals(List.of(HttpStatus.CREATED.value(), HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.BAD_REQUEST.value()), actual.stream().map(NewsBatchResultDto::getStatus).toList());
+        assertEquals("batch", newsStore.findByNumber(actual.get(0).getNumber()).orElseThrow().getTitle());
+        assertEquals(countBefore + 1, newsStore.count());
+    }
+
+    @Test
+    @DisplayName("Пакетное изменение новостей с результатом по каждой, включая пустые и без номера")
+    public void patchBatch() {
+        String expectedTitle = "patched in batch";
+        List<NewsDto> request = Arrays.asList(
+                NewsDto.builder().number(NUMBER_NEWS_IN_SCOPE_ONE).title(expectedTitle).build(),
+                null,
+                NewsDto.builder().title("no number").build(),
+                NewsDto.builder().number(NUMBER_NEWS_OUT_OF_SCOPE).title("missing").build());
+
+        List<NewsBatchResultDto> actual = RestAssured.given(requestSpecification)
+                .body(request)
+                .patch(PATH_BATCH)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .body()
+                .as(new TypeRef<>() {
+                });
+
+        assertEquals(List.of(HttpStatus.OK.value(), HttpStatus.BAD_REQUEST.value(), HttpStatus.BAD_REQUEST.value(),
+                HttpStatus.NOT_FOUND.value()), actual.stream().map(NewsBatchResultDto::getStatus).toList());
+        assertEquals(expectedTitle, newsStore.findByNumber(NUMBER_NEWS_IN_SCOPE_ONE).orElseThrow().getTitle());
+    }
+
+    @Test
+    @DisplayName("Пакетное удаление новостей с результатом по каждой")
+    public void deleteBatch() {
+        List<NewsBatchResultDto> actual = RestAssured.given(requestSpecification)
+                .body(List.of(NUMBER_NEWS_IN_SCOPE_ONE, NUMBER_NEWS_OUT_OF_SCOPE))
+                .delete(PATH_BATCH)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .body()
+                .as(new TypeRef<>() {
+                });
+
+        assertEquals(HttpStatus.OK.value(), actual.get(0).getStatus());
+        assertEquals(HttpStatus.NOT_FOUND.value(), actual.get(1).getStatus());
+        assertTrue(newsRepository.findByNumber(NUMBER_NEWS_IN_SCOPE_ONE).isEmpty());
+    }
+
     @Test
     @DisplayName("Успешное получение новости по id")
     public void getByIdSuccess() {
@@ -186,6 +324,198 @@ public class NewsControllerTest {
         assertEquals(newsEntity.getAuthor(), actual.getAuthor());
     }
 
+    @Test
+    @DisplayName("Страница отдается готовыми байтами: gzip для клиентов, которые его принимают")
+    public void getPageEncodings() throws IOException {
+        RestAssuredConfig rawBody = RestAssuredConfig.config()
+                .decoderConfig(DecoderConfig.decoderConfig().noContentDecoders());
+        Response json = RestAssured.given(requestSpecification)
+                .config(rawBody)
+                .header(HttpHeaders.ACCEPT_ENCODING, "identity")
+                .queryParam("page", MINIMUM_PAGE_LIMIT)
+                .get()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.CONTENT_ENCODING, nullValue())
+                .header(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING))
+                .extract()
+                .response();
+
+        Response gzip = RestAssured.given(requestSpecification)
+                .config(rawBody)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .queryParam("page", MINIMUM_PAGE_LIMIT)
+                .get()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .extract()
+                .response();
+
+        assertNotEquals(json.header(HttpHeaders.ETAG), gzip.header(HttpHeaders.ETAG));
+        assertTrue(gzip.asByteArray().length < json.asByteArray().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.asByteArray()))) {
+            assertArrayEquals(json.asByteArray(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Успешное получение новостей после курсора")
+    public void getAfterSuccess() {
+        NewsCursorPageDto<NewsDto> newsCursorPageDto = RestAssured.given(requestSpecification)
+                .queryParam("after", NUMBER_NEWS_IN_SCOPE_TWO)
+                .queryParam("limit", CURSOR_LIMIT)
+                .get()
+                .then()
+                .spec(responseSpecification)
+                .contentType(ContentType.JSON)
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .body()
+                .as(new TypeRef<>() {
+                });
+        int lastNumber = NUMBER_NEWS_IN_SCOPE_TWO + CURSOR_LIMIT;
+        List<Integer> expectedNumbers = IntStream.rangeClosed(NUMBER_NEWS_IN_SCOPE_TWO + 1, lastNumber)
+                .boxed()
+                .toList();
+        List<Integer> actualNumbers = newsCursorPageDto.getContent().stream().map(NewsDto::getNumber).toList();
+
+        assertEquals(expectedNumbers, actualNumbers);
+        assertEquals(lastNumber, newsCursorPageDto.getNextCursor());
+        assertEquals(CURSOR_LIMIT, newsCursorPageDto.getLimit());
+        assertEquals(CURSOR_LIMIT, newsCursorPageDto.getSize());
+    }
+
+    @Test
+    @DisplayName("Поиск новости по фразе и автору")
+    public void searchSuccess() {
+        NewsDto newsDto = NewsDto.builder()
+                .title("Antifragile. Things That Gain from Disorder")
+                .text("Just as human bones get stronger when subjected to stress and tension...")
+                .author("Nassim Nicholas Taleb")
+                .build();
+        RestAssured.given(requestSpecification)
+                .body(newsDto)
+                .post()
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.CREATED.value());
+
+        NewsPageDto<NewsDto> actual = RestAssured.given(requestSpecification)
+                .queryParam("q", "\"gain from disorder\" bones")
+                .queryParam("author", "nassim nicholas taleb")
+                .get(PATH_SEARCH)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .body()
+                .as(new TypeRef<>() {
+                });
+
+        assertEquals(NUMBER_NEWS_IN_SCOPE_ONE, actual.getSize());
+        assertEquals(newsDto.getTitle(), actual.getContent().get(0).getTitle());
+    }
+
+    @Test
+    @DisplayName("Получение новостей автора и списка авторов")
+    public void getByAuthorSuccess() {
+        String author = newsRepository.findByNumber(NUMBER_NEWS_IN_SCOPE_ONE).orElseThrow().getAuthor();
+        int authorNewsCount = newsRepository.findAll().size();
+
+        RestAssured.given(requestSpecification)
+                .queryParam("author", author.toUpperCase())
+                .queryParam("page", NUMBER_PAGE_START)
+                .get()
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .body("size", equalTo(PAGE_SIZE))
+                .body("content[0].number", equalTo(PAGE_SIZE + NUMBER_NEWS_IN_SCOPE_ONE))
+                .body("countPages", equalTo(authorNewsCount / PAGE_SIZE));
+
+        RestAssured.given(requestSpecification)
+                .get(PATH_AUTHORS)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .body("[0].author", equalTo(author))
+                .body("[0].count", equalTo(authorNewsCount));
+    }
+
+    @Test
+    @DisplayName("Экспорт диапазона новостей в NDJSON")
+    public void exportRangeSuccess() {
+        String actual = RestAssured.given(requestSpecification)
+                .queryParam("from", NUMBER_NEWS_IN_SCOPE_ONE)
+                .queryParam("to", NUMBER_NEWS_IN_SCOPE_TWO)
+                .get(PATH_EXPORT)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .contentType("application/x-ndjson")
+                .extract()
+                .asString();
+
+        List<String> lines = actual.lines().toList();
+        assertEquals(NUMBER_NEWS_IN_SCOPE_TWO, lines.size());
+        assertTrue(lines.get(0).contains("\"number\":%s".formatted(NUMBER_NEWS_IN_SCOPE_ONE)));
+        assertTrue(lines.get(1).contains("\"number\":%s".formatted(NUMBER_NEWS_IN_SCOPE_TWO)));
+    }
+
+    @Test
+    @DisplayName("Лента изменений отдает записи по порядку и ждет новых")
+    public void changesFeed() {
+        RestAssured.given(requestSpecification)
+                .queryParam("wait", 0)
+                .get(PATH_CHANGES)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .body("changes", empty())
+                .body("headSequence", equalTo(0));
+
+        CompletableFuture<String> longPoll = CompletableFuture.supplyAsync(() -> RestAssured
+                .given(requestSpecification)
+                .queryParam("since", 0)
+                .queryParam("wait", CHANGES_WAIT_SECONDS)
+                .get(PATH_CHANGES)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .path("changes[0].type"));
+
+        RestAssured.given(requestSpecification)
+                .body(NewsDto.builder().title("Today is not Groundhog Day").build())
+                .patch(PATH_TEMPLATE_FOR_ID, NUMBER_NEWS_IN_SCOPE_TWO)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+        RestAssured.given(requestSpecification)
+                .delete(PATH_TEMPLATE_FOR_ID, NUMBER_NEWS_IN_SCOPE_ONE)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+        assertEquals("UPDATED", longPoll.join());
+
+        RestAssured.given(requestSpecification)
+                .queryParam("since", 0)
+                .queryParam("wait", 0)
+                .get(PATH_CHANGES)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .body("changes.type", equalTo(List.of("UPDATED", "DELETED")))
+                .body("changes.number", equalTo(List.of(NUMBER_NEWS_IN_SCOPE_TWO, NUMBER_NEWS_IN_SCOPE_ONE)))
+                .body("changes[0].news.title", equalTo("Today is not Groundhog Day"))
+                .body("lastSequence", equalTo(2));
+
+        RestAssured.given(requestSpecification)
+                .queryParam("since", NUMBER_NEWS_OUT_OF_SCOPE)
+                .get(PATH_CHANGES)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.GONE.value());
+    }
+
     @Test
     @DisplayName("Успешное обновление новости")
     public void patchSuccess() {
@@ -211,6 +541,151 @@ public class NewsControllerTest {
         assertEquals(newsEntity.getAuthor(), newsEntityActual.getAuthor());
     }
 
+    @Test
+    @DisplayName("Кэши прогреты к моменту готовности и обновляются в фоне")
+    public void warmUpAndRefresh() {
+        Cache idCache = cacheManager.getCache(NEWS_BY_ID);
+        Cache pageCache = cacheManager.getCache(NEWS_BY_PAGE);
+        RestAssured.given()
+                .get(PATH_READINESS)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+        assertNotNull(idCache.get(NUMBER_NEWS_IN_SCOPE_TWO));
+        assertNotNull(pageCache.get(MINIMUM_PAGE_LIMIT));
+
+        String expectedTitle = "Today is not Groundhog Day";
+        Object stalePage = pageCache.get(MINIMUM_PAGE_LIMIT).get();
+        NewsEntity entity = newsMapper.toEntity(idCache.get(NUMBER_NEWS_IN_SCOPE_TWO, NewsDto.class));
+        entity.setTitle(expectedTitle);
+        newsStore.update(entity);
+        pageCache.put(MINIMUM_PAGE_LIMIT, stalePage);
+        cacheWarmer.refreshHotKeys();
+        newsService.refreshNews(NUMBER_NEWS_IN_SCOPE_TWO);
+
+        assertEquals(expectedTitle, idCache.get(NUMBER_NEWS_IN_SCOPE_TWO, NewsDto.class).getTitle());
+        NewsPageDto<?> page = pageCache.get(MINIMUM_PAGE_LIMIT, NewsPageDto.class);
+        assertEquals(expectedTitle, ((NewsDto) page.getContent().get(NUMBER_NEWS_IN_SCOPE_ONE)).getTitle());
+    }
+
+    @Test
+    @DisplayName("Обновление новости сбрасывает из кэша только ее страницу")
+    public void patchEvictsOnlyItsPage() {
+        Cache pageCache = cacheManager.getCache(NEWS_BY_PAGE);
+        Stream.of(MINIMUM_PAGE_LIMIT, NUMBER_PAGE_START).forEach(page -> RestAssured.given(requestSpecification)
+                .queryParam("page", page)
+                .get()
+                .then()
+                .statusCode(HttpStatus.OK.value()));
+        NewsDto requestNewsDto = NewsDto.builder()
+                .title("Today is not Groundhog Day")
+                .build();
+
+        RestAssured.given(requestSpecification)
+                .body(requestNewsDto)
+                .patch(PATH_TEMPLATE_FOR_ID, NUMBER_NEWS_IN_SCOPE_TWO)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value());
+
+        assertNull(pageCache.get(MINIMUM_PAGE_LIMIT));
+        assertNotNull(pageCache.get(NUMBER_PAGE_START));
+    }
+
+    @Test
+    @DisplayName("Обновление новости записывается в кэш, текст и автор читаются из него")
+    public void patchWritesThroughCache() {
+        Cache idCache = cacheManager.getCache(NEWS_BY_ID);
+        String expectedTitle = "Today is not Groundhog Day";
+        NewsDto requestNewsDto = NewsDto.builder()
+                .title(expectedTitle)
+                .build();
+
+        RestAssured.given(requestSpecification)
+                .body(requestNewsDto)
+                .patch(PATH_TEMPLATE_FOR_ID, NUMBER_NEWS_IN_SCOPE_TWO)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value());
+        NewsDto cached = idCache.get(NUMBER_NEWS_IN_SCOPE_TWO, NewsDto.class);
+        assertNotNull(cached);
+        assertEquals(expectedTitle, cached.getTitle());
+
+        RestAssured.given(requestSpecification)
+                .get(PATH_TEMPLATE_FOR_NEWS_AUTHOR, NUMBER_NEWS_IN_SCOPE_TWO)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .body(equalTo(cached.getAuthor()));
+    }
+
+    @Test
+    @DisplayName("Условные запросы: 304 по If-None-Match и 412 по устаревшему If-Match")
+    public void conditionalRequests() {
+        Headers lastSeeded = RestAssured.given(requestSpecification)
+                .get(PATH_TEMPLATE_FOR_ID, newsStore.count())
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .headers();
+        assertFalse(ZonedDateTime.parse(lastSeeded.getValue(HttpHeaders.LAST_MODIFIED), RFC_1123_DATE_TIME)
+                .isAfter(ZonedDateTime.parse(lastSeeded.getValue(HttpHeaders.DATE), RFC_1123_DATE_TIME)));
+
+        String eTag = RestAssured.given(requestSpecification)
+                .get(PATH_TEMPLATE_FOR_ID, NUMBER_NEWS_IN_SCOPE_TWO)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .header(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        RestAssured.given(requestSpecification)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get(PATH_TEMPLATE_FOR_ID, NUMBER_NEWS_IN_SCOPE_TWO)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.NOT_MODIFIED.value());
+
+        NewsDto requestNewsDto = NewsDto.builder()
+                .title("Today is not Groundhog Day")
+                .build();
+        String newETag = RestAssured.given(requestSpecification)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .body(requestNewsDto)
+                .patch(PATH_TEMPLATE_FOR_ID, NUMBER_NEWS_IN_SCOPE_TWO)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .header(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+
+        RestAssured.given(requestSpecification)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .body(requestNewsDto)
+                .patch(PATH_TEMPLATE_FOR_ID, NUMBER_NEWS_IN_SCOPE_TWO)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+
+        RestAssured.given(requestSpecification)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .get(PATH_TEMPLATE_FOR_ID, NUMBER_NEWS_IN_SCOPE_TWO)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, equalTo(newETag));
+
+        RestAssured.given(requestSpecification)
+                .header(HttpHeaders.IF_MATCH, newETag.replaceFirst("\"$", "-gz\""))
+                .body(requestNewsDto)
+                .patch(PATH_TEMPLATE_FOR_ID, NUMBER_NEWS_IN_SCOPE_TWO)
+                .then()
+                .spec(responseSpecification)
+                .statusCode(HttpStatus.OK.value());
+    }
+
     @Test
     @DisplayName("Неуспешное обновление новости")
     public void patchFailure() {
@@ -227,6 +702,32 @@ public class NewsControllerTest {
                 .body(equalTo("Нет новости с таким номером"));
     }
 
+    @Test
+    @DisplayName("Чтение при занятом пуле и полной очереди сразу получает 503 с Retry-After")
+    public void getRejectedWhenExecutorSaturated() throws Exception {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            IntStream.range(0, 2).forEach(i -> executor.execute(() -> await(release)));
+            MockMvc mockMvc = MockMvcBuilders
+                    .standaloneSetup(new NewsController(newsService, executor, responseEncoder))
+                    .setMessageConverters(new StringHttpMessageConverter(StandardCharsets.UTF_8))
+                    .build();
+
+            mockMvc.perform(get("/news").param("page", String.valueOf(MINIMUM_PAGE_LIMIT)))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(content().string("Сервис новостей перегружен, повторите запрос позже"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
     @Test
     @DisplayName("Получение текста новости")
     public void getTextNewsSuccess() {
@@ -274,4 +775,12 @@ public class NewsControllerTest {
                 .statusCode(HttpStatus.NOT_FOUND.value())
                 .body(equalTo("Нет новости с таким номером либо автор новости отсутствует"));
     }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -0,0 +1,108 @@
+package com.javacademy.new_york_times.admission;
+
+import com.javacademy.new_york_times.config.NewsAdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class AdmissionControlFilterTest {
+    private static final int BURST = 2;
+    private static final double RATE_PER_SECOND = 0.1;
+    private static final int OK = 200;
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final String CLIENT_HEADER = "X-Client-Id";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(properties(), meterRegistry);
+
+    @Test
+    @DisplayName("Клиент сверх своей корзины получает 429 с Retry-After, другие клиенты не страдают")
+    public void rateLimitPerClient() throws Exception {
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(OK, get("a").getStatus());
+        }
+        MockHttpServletResponse limited = get("a");
+        assertEquals(TOO_MANY_REQUESTS, limited.getStatus());
+        assertEquals("10", limited.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(OK, get("b").getStatus());
+        assertEquals(1, meterRegistry.get("news.admission.rejected").tag("reason", "rate_limit").counter().count());
+        assertEquals(2, meterRegistry.get("news.admission.clients").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Запрос на изменение при занятых местах сразу получает 503, место освобождается после ответа")
+    public void writesBulkhead() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain occupying = (request, response) -> {
+            assertEquals(1, meterRegistry.get("news.admission.writes.active").gauge().value());
+            nested.set(filter(request("POST", "b"), new MockFilterChain()));
+        };
+        assertEquals(OK, filter(request("POST", "a"), occupying).getStatus());
+
+        assertNotNull(nested.get());
+        assertEquals(SERVICE_UNAVAILABLE, nested.get().getStatus());
+        assertEquals("1", nested.get().getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(0, meterRegistry.get("news.admission.writes.active").gauge().value());
+        assertEquals(OK, filter(request("POST", "b"), new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    @DisplayName("Заголовок клиента учитывается, только если он настроен как доверенный")
+    public void clientHeaderOnlyWhenTrusted() throws Exception {
+        for (int i = 0; i <= BURST; i++) {
+            MockHttpServletRequest request = request("GET", "c");
+            request.addHeader(CLIENT_HEADER, "rotated-" + i);
+            assertEquals(i < BURST ? OK : TOO_MANY_REQUESTS, filter(request, new MockFilterChain()).getStatus());
+        }
+
+        NewsAdmissionProperties trusted = properties();
+        trusted.setClientHeader(CLIENT_HEADER);
+        AdmissionControlFilter trustingFilter = new AdmissionControlFilter(trusted, new SimpleMeterRegistry());
+        for (int i = 0; i <= BURST; i++) {
+            MockHttpServletRequest request = request("GET", "c");
+            request.addHeader(CLIENT_HEADER, "user-" + i);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            trustingFilter.doFilter(request, response, new MockFilterChain());
+            assertEquals(OK, response.getStatus());
+        }
+    }
+
+    private MockHttpServletResponse get(String client) throws Exception {
+        return filter(request("GET", client), new MockFilterChain());
+    }
+
+    private MockHttpServletResponse filter(ServletRequest request, FilterChain chain)
+            throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/news");
+        request.setRemoteAddr(client);
+        return request;
+    }
+
+    private static NewsAdmissionProperties properties() {
+        NewsAdmissionProperties properties = new NewsAdmissionProperties();
+        properties.setBurst(BURST);
+        properties.setRatePerSecond(RATE_PER_SECOND);
+        properties.setMaxConcurrentWrites(1);
+        return properties;
+    }
+}
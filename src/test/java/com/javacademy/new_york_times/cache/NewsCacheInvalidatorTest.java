@@ -0,0 +1,111 @@
+package com.javacademy.new_york_times.cache;
+
+import com.javacademy.new_york_times.config.NewsPageProperties;
+import com.javacademy.new_york_times.config.NewsStoreProperties;
+import com.javacademy.new_york_times.dto.NewsDto;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import com.javacademy.new_york_times.mapper.NewsMapperImpl;
+import com.javacademy.new_york_times.repository.CachedNewsStore;
+import com.javacademy.new_york_times.repository.NewsRepository;
+import com.javacademy.new_york_times.repository.RepositoryNewsBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_ID;
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_PAGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class NewsCacheInvalidatorTest {
+    private static final int ROUNDS = 200;
+    private static final int WRITERS = 2;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NewsPageProperties pageProperties = new NewsPageProperties();
+    private final CachedNewsStore store = new CachedNewsStore(new RepositoryNewsBackend(new NewsRepository()),
+            new NewsStoreProperties(), meterRegistry);
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    private final Cache pageCache = cacheManager.getCache(NEWS_BY_PAGE);
+
+    @Test
+    @DisplayName("Параллельные добавления, вместе переходящие границу страницы, сбрасывают все страницы")
+    public void concurrentAppendsAcrossPageBoundaryClearPages() throws Exception {
+        new NewsCacheInvalidator(store, pageProperties, new NewsMapperImpl(), cacheManager, meterRegistry).start();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            saveNews(pageProperties.getSize());
+            for (int round = 0; round < ROUNDS; round++) {
+                pageCache.put(0, "page with old countPages");
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> writers = IntStream.range(0, WRITERS)
+                        .<Future<?>>mapToObj(i -> executor.submit(() -> {
+                            start.await();
+                            store.save(news());
+                            return null;
+                        }))
+                        .toList();
+                start.countDown();
+                for (Future<?> writer : writers) {
+                    writer.get();
+                }
+                assertNull(pageCache.get(0), "round %s".formatted(round));
+                saveNews(pageProperties.getSize() - WRITERS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Параллельные изменения одной новости оставляют в news_by_id последнюю версию")
+    public void concurrentUpdatesWriteThroughInOrder() throws Exception {
+        new NewsCacheInvalidator(store, pageProperties, new NewsMapperImpl(), cacheManager, meterRegistry).start();
+        NewsEntity saved = news();
+        store.save(saved);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = IntStream.range(0, WRITERS)
+                    .<Future<?>>mapToObj(writer -> executor.submit(() -> {
+                        for (int i = 0; i < ROUNDS; i++) {
+                            NewsEntity update = news();
+                            update.setNumber(saved.getNumber());
+                            update.setTitle("writer %s, update %s".formatted(writer, i));
+                            store.update(update);
+                        }
+                        return null;
+                    }))
+                    .toList();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        NewsEntity latest = store.findByNumber(saved.getNumber()).orElseThrow();
+        NewsDto cached = cacheManager.getCache(NEWS_BY_ID).get(saved.getNumber(), NewsDto.class);
+        assertEquals(latest.getTitle(), cached.getTitle());
+        assertEquals(latest.getRevision(), cached.getRevision());
+    }
+
+    private void saveNews(int count) {
+        IntStream.range(0, count).forEach(i -> store.save(news()));
+    }
+
+    private static NewsEntity news() {
+        return NewsEntity.builder()
+                .title("title")
+                .text("text")
+                .author("author")
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.javacademy.new_york_times.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightLoaderTest {
+    private static final int CALLERS = 20;
+    private static final String CACHE_NAME = "news_by_id";
+    private static final int KEY = 7;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlightLoader singleFlightLoader = new SingleFlightLoader(meterRegistry);
+
+    @Test
+    @DisplayName("Одновременные промахи по одному ключу выполняют одну загрузку")
+    public void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> futures = IntStream.range(0, CALLERS)
+                    .mapToObj(i -> executor.submit(() -> singleFlightLoader.load(CACHE_NAME, KEY, () -> {
+                        loads.incrementAndGet();
+                        await(release);
+                        return "news";
+                    })))
+                    .toList();
+            while (coalesced() < CALLERS - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<String> future : futures) {
+                assertEquals("news", future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(CALLERS - 1, coalesced());
+    }
+
+    @Test
+    @DisplayName("Неудачная загрузка пробрасывает исключение и не запоминается")
+    public void failedLoadIsNotRemembered() {
+        assertThrows(IllegalStateException.class, () -> singleFlightLoader.load(CACHE_NAME, KEY, () -> {
+            throw new IllegalStateException();
+        }));
+
+        assertEquals("news", singleFlightLoader.load(CACHE_NAME, KEY, () -> "news"));
+    }
+
+    private double coalesced() {
+        return meterRegistry.counter("news.singleflight.calls", "cache", CACHE_NAME, "result", "coalesced").count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(1, TimeUnit.MINUTES));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
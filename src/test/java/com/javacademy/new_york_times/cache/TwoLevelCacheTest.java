@@ -0,0 +1,57 @@
+package com.javacademy.new_york_times.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import static com.javacademy.new_york_times.cache.NewsCacheNames.NEWS_BY_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TwoLevelCacheTest {
+    private static final int FIRST_KEY = 1;
+    private static final int SECOND_KEY = 2;
+    private static final String FOREIGN = "foreign";
+
+    private final SharedNewsCache sharedCache = new InProcessSharedNewsCache();
+    private final NewsCacheBus bus = new InProcessNewsCacheBus();
+    private final Cache nodeA = node("a").getCache(NEWS_BY_ID);
+    private final Cache nodeB = node("b").getCache(NEWS_BY_ID);
+
+    @Test
+    @DisplayName("Узлы видят записи друг друга через общий уровень и сбрасывают локальные копии по сообщениям")
+    public void nodesShareEntriesAndInvalidations() {
+        nodeA.put(FIRST_KEY, "updated");
+        assertEquals("updated", nodeB.get(FIRST_KEY, String.class));
+
+        nodeB.evict(FIRST_KEY);
+        assertNull(nodeA.get(FIRST_KEY));
+
+        nodeA.put(SECOND_KEY, "other");
+        assertEquals("other", nodeB.get(SECOND_KEY, String.class));
+        nodeA.clear();
+        assertNull(nodeB.get(SECOND_KEY));
+    }
+
+    @Test
+    @DisplayName("Загрузка после промаха остается на своем узле, значение из общего уровня отдается после проверки")
+    public void loadsStayLocalAndSharedValuesAreChecked() {
+        nodeA.putIfAbsent(FIRST_KEY, "loaded");
+        assertNull(nodeB.get(FIRST_KEY));
+
+        nodeB.put(FIRST_KEY, FOREIGN);
+        assertNull(nodeA.get(FIRST_KEY));
+        assertNull(nodeA.putIfAbsent(FIRST_KEY, "loaded"));
+        assertEquals("loaded", nodeA.get(FIRST_KEY, String.class));
+
+        nodeB.put(SECOND_KEY, "other");
+        assertEquals("other", nodeA.get(SECOND_KEY, (Class<String>) null));
+    }
+
+    private TwoLevelCacheManager node(String name) {
+        return new TwoLevelCacheManager(new CaffeineCacheManager(), sharedCache, bus,
+                (cacheName, key, value) -> !FOREIGN.equals(value), name, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,138 @@
+package com.javacademy.new_york_times.changes;
+
+import com.javacademy.new_york_times.config.NewsChangesProperties;
+import com.javacademy.new_york_times.config.NewsStoreProperties;
+import com.javacademy.new_york_times.dto.NewsChangeDto;
+import com.javacademy.new_york_times.dto.NewsChangeType;
+import com.javacademy.new_york_times.dto.NewsChangesDto;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import com.javacademy.new_york_times.exception.NewsChangesExpiredException;
+import com.javacademy.new_york_times.mapper.NewsMapper;
+import com.javacademy.new_york_times.repository.CachedNewsStore;
+import com.javacademy.new_york_times.repository.NewsRepository;
+import com.javacademy.new_york_times.repository.RepositoryNewsBackend;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mapstruct.factory.Mappers;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NewsChangeLogTest {
+    private static final int CAPACITY = 2;
+    private static final int LIMIT = 10;
+    private static final int WRITES = 5_000;
+    private static final int WAITERS = 100;
+    private static final Duration SHORT_WAIT = Duration.ofMillis(20);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Вытесненные из буфера события читаются из файла, без файла отставший читатель получает 410")
+    public void spillEvictedChanges() throws Exception {
+        CachedNewsStore store = store();
+        NewsChangeLog withSpill = changeLog(store, directory.resolve("changes.log").toString());
+        NewsChangeLog withoutSpill = changeLog(store, null);
+        NewsEntity first = news("first");
+        NewsEntity second = news("second");
+        store.saveAll(List.of(first, second));
+        NewsEntity updated = news("updated");
+        updated.setNumber(first.getNumber());
+        store.update(updated);
+        store.deleteByNumber(second.getNumber());
+
+        NewsChangesDto spilled = withSpill.changesAfter(0, LIMIT, Duration.ZERO).join();
+        assertEquals(List.of(NewsChangeType.CREATED, NewsChangeType.CREATED),
+                spilled.getChanges().stream().map(NewsChangeDto::getType).toList());
+        assertEquals("second", spilled.getChanges().get(1).getNews().getTitle());
+        assertEquals(2, spilled.getLastSequence());
+
+        NewsChangesDto buffered = withSpill.changesAfter(spilled.getLastSequence(), LIMIT, Duration.ZERO).join();
+        assertEquals(List.of(NewsChangeType.UPDATED, NewsChangeType.DELETED),
+                buffered.getChanges().stream().map(NewsChangeDto::getType).toList());
+        assertEquals("updated", buffered.getChanges().get(0).getNews().getTitle());
+        assertEquals(buffered.getHeadSequence(), buffered.getLastSequence());
+
+        assertThrows(NewsChangesExpiredException.class, () -> withoutSpill.changesAfter(0, LIMIT, Duration.ZERO));
+        withSpill.close();
+    }
+
+    @Test
+    @DisplayName("Чтение из файла во время записи начинается с нужного события и не видит недописанных строк")
+    public void readSpillWhileWriting() throws Exception {
+        CachedNewsStore store = store();
+        NewsChangeLog changeLog = changeLog(store, directory.resolve("changes.log").toString());
+        Thread writer = new Thread(() -> IntStream.range(0, WRITES).forEach(i -> store.save(news("новость " + i))));
+        writer.start();
+        while (writer.isAlive()) {
+            long head = changeLog.changesAfter(0, 1, Duration.ZERO).join().getHeadSequence();
+            for (long since : new long[] {head / 2, Math.max(0, head - CAPACITY - 1)}) {
+                List<Long> sequences = changeLog.changesAfter(since, LIMIT, Duration.ZERO).join().getChanges()
+                        .stream().map(NewsChangeDto::getSequence).toList();
+                assertEquals(LongStream.range(since + 1, since + 1 + sequences.size()).boxed().toList(), sequences);
+            }
+        }
+        writer.join();
+        changeLog.close();
+    }
+
+    @Test
+    @DisplayName("Ожидание по таймауту убирается из журнала, запись будит и убирает оставшихся")
+    public void waitersLeaveOnTimeout() throws IOException {
+        CachedNewsStore store = store();
+        NewsChangeLog changeLog = changeLog(store, null);
+        long head = changeLog.changesAfter(0, LIMIT, Duration.ZERO).join().getHeadSequence();
+        List<CompletableFuture<NewsChangesDto>> timedOut = IntStream.range(0, WAITERS)
+                .mapToObj(i -> changeLog.changesAfter(head, LIMIT, SHORT_WAIT))
+                .toList();
+        timedOut.forEach(waiter -> assertTrue(waiter.join().getChanges().isEmpty()));
+        assertEquals(0, changeLog.waiting());
+
+        CompletableFuture<NewsChangesDto> waiting = changeLog.changesAfter(head, LIMIT, Duration.ofMinutes(1));
+        assertEquals(1, changeLog.waiting());
+        store.save(news("first"));
+        assertEquals(List.of(NewsChangeType.CREATED),
+                waiting.join().getChanges().stream().map(NewsChangeDto::getType).toList());
+        assertEquals(0, changeLog.waiting());
+    }
+
+    private static CachedNewsStore store() {
+        NewsRepository newsRepository = new NewsRepository();
+        CachedNewsStore store = new CachedNewsStore(new RepositoryNewsBackend(newsRepository),
+                new NewsStoreProperties(), new SimpleMeterRegistry());
+        store.load();
+        return store;
+    }
+
+    private static NewsChangeLog changeLog(CachedNewsStore store, String spillFile) throws IOException {
+        NewsChangesProperties properties = new NewsChangesProperties();
+        properties.setCapacity(CAPACITY);
+        properties.setSpillFile(spillFile);
+        NewsChangeLog changeLog = new NewsChangeLog(store, Mappers.getMapper(NewsMapper.class), new ObjectMapper(),
+                new SimpleAsyncTaskExecutor(), properties);
+        changeLog.start();
+        return changeLog;
+    }
+
+    private static NewsEntity news(String title) {
+        return NewsEntity.builder()
+                .title(title)
+                .text("text")
+                .author("author")
+                .build();
+    }
+}
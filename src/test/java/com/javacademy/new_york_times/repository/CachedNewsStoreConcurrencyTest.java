@@ -0,0 +1,133 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.config.NewsStoreProperties;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachedNewsStoreConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+    private static final int SEEDED_NEWS = 200;
+    private static final int OPERATION_KINDS = 4;
+    private static final int PAGE_SIZE = 10;
+
+    static Stream<Arguments> storeModes() {
+        return Stream.of(
+                Arguments.of(NewsStoreConcurrency.STRIPED, NewsStoreLayout.ENTITY),
+                Arguments.of(NewsStoreConcurrency.SINGLE_WRITER, NewsStoreLayout.ENTITY),
+                Arguments.of(NewsStoreConcurrency.STRIPED, NewsStoreLayout.COMPACT));
+    }
+
+    @ParameterizedTest
+    @MethodSource("storeModes")
+    @DisplayName("Параллельные get/save/update/delete сохраняют согласованность репозитория, копии и индекса")
+    public void concurrentWritesKeepStoreConsistent(NewsStoreConcurrency concurrency, NewsStoreLayout layout)
+            throws Exception {
+        TreeMapNewsBackend backend = new TreeMapNewsBackend();
+        NewsStoreProperties properties = new NewsStoreProperties();
+        properties.setConcurrency(concurrency);
+        properties.setLayout(layout);
+        CachedNewsStore store = new CachedNewsStore(backend, properties,
+                new SimpleMeterRegistry());
+        store.load();
+        IntStream.range(0, SEEDED_NEWS).forEach(i -> store.save(news("seed")));
+
+        Map<Integer, AtomicInteger> successfulDeletes = new ConcurrentHashMap<>();
+        Set<Integer> savedNumbers = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = IntStream.range(0, THREADS)
+                    .mapToObj(thread -> executor.submit(() -> {
+                        start.await();
+                        runOperations(store, thread, successfulDeletes, savedNumbers);
+                        return null;
+                    }))
+                    .collect(Collectors.toList());
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        successfulDeletes.forEach((number, deletes) -> assertTrue(deletes.get() <= 1,
+                "News %s deleted %s times".formatted(number, deletes.get())));
+        IntStream.rangeClosed(1, SEEDED_NEWS).forEach(number -> assertEquals(
+                successfulDeletes.getOrDefault(number, new AtomicInteger()).get() == 0,
+                store.findByNumber(number).isPresent()));
+        savedNumbers.forEach(number -> assertTrue(store.findByNumber(number).isPresent()
+                || successfulDeletes.containsKey(number)));
+        List<NewsEntity> all = store.findAll();
+        assertEquals(backend.findAll(), all);
+        assertEquals(all.size(), store.count());
+        for (int offset = 0; offset <= all.size(); offset += PAGE_SIZE) {
+            assertEquals(all.subList(offset, Math.min(offset + PAGE_SIZE, all.size())),
+                    store.findPage(offset, PAGE_SIZE));
+        }
+    }
+
+    private static void runOperations(CachedNewsStore store, int thread, Map<Integer, AtomicInteger> successfulDeletes,
+                                      Set<Integer> savedNumbers) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            int number = random.nextInt(1, SEEDED_NEWS + 1);
+            switch (random.nextInt(OPERATION_KINDS)) {
+                case 0 -> {
+                    Optional<NewsEntity> found = store.findByNumber(number);
+                    found.ifPresent(entity -> assertEquals(number, entity.getNumber()));
+                }
+                case 1 -> {
+                    NewsEntity entity = news("thread-%s".formatted(thread));
+                    store.save(entity);
+                    assertTrue(savedNumbers.add(entity.getNumber()));
+                }
+                case 2 -> {
+                    if (store.deleteByNumber(number)) {
+                        successfulDeletes.computeIfAbsent(number, key -> new AtomicInteger()).incrementAndGet();
+                    }
+                }
+                default -> {
+                    NewsEntity entity = news("thread-%s".formatted(thread));
+                    entity.setNumber(number);
+                    try {
+                        store.update(entity);
+                    } catch (RuntimeException ex) {
+                        assertTrue(store.findByNumber(number).isEmpty());
+                    }
+                }
+            }
+        }
+    }
+
+    private static NewsEntity news(String title) {
+        return NewsEntity.builder()
+                .title(title)
+                .text("text")
+                .author("author")
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.config.NewsStoreProperties;
+import com.javacademy.new_york_times.entity.NewsEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CachedNewsStoreTest {
+    private static final int SAVED_BEFORE_FAILURE = 2;
+    private static final int MISSING_NUMBER = 100;
+    private static final long BATCHES = 3;
+    private static final int PAGE = 10;
+    private static final int PHRASE_CANDIDATES = 3;
+    private static final int PHRASE_MATCHES = 2;
+
+    private final List<String> events = new ArrayList<>();
+
+    @Test
+    @DisplayName("Сбой репозитория посреди пакета: сохраненная часть доходит до слушателей и сдвигает поколение")
+    public void failedBatchNotifiesSavedPart() {
+        CachedNewsStore store = store(new TreeMapNewsBackend() {
+            private int saves;
+
+            @Override
+            public void save(NewsEntity entity) {
+                if (saves++ == SAVED_BEFORE_FAILURE) {
+                    throw new IllegalStateException("Backend is unavailable");
+                }
+                super.save(entity);
+            }
+        });
+
+        assertThrows(IllegalStateException.class,
+                () -> store.saveAll(List.of(news("first"), news("second"), news("third"))));
+
+        assertEquals(List.of("saved [1, 2]"), events);
+        assertEquals(SAVED_BEFORE_FAILURE, store.count());
+        assertEquals(1, store.writeGeneration());
+    }
+
+    @Test
+    @DisplayName("Пакетные изменение и удаление сообщают слушателям один раз и пропускают отсутствующие номера")
+    public void batchesNotifyOnce() {
+        CachedNewsStore store = store(new TreeMapNewsBackend());
+        List<NewsEntity> saved = List.of(news("first"), news("second"), news("third"));
+        store.saveAll(saved);
+        NewsEntity first = news("first updated");
+        first.setNumber(saved.get(0).getNumber());
+        NewsEntity missing = news("missing");
+        missing.setNumber(MISSING_NUMBER);
+        NewsEntity third = news("third updated");
+        third.setNumber(saved.get(2).getNumber());
+
+        assertEquals(List.of(first, third), store.updateAll(List.of(first, missing, third)));
+        assertEquals(List.of(1, 2), store.deleteAll(List.of(1, MISSING_NUMBER, 2, 1)));
+
+        assertEquals(List.of("saved " + numbers(saved), "updated " + numbers(List.of(first, third)), "deleted [1, 2]"),
+                events);
+        assertEquals(List.of(third), store.findAll());
+        assertEquals(BATCHES, store.writeGeneration());
+    }
+
+    @Test
+    @DisplayName("Поиск видит новую версию новости, фразы проверяются только до конца страницы")
+    public void searchAfterUpdateAndPhrasePages() {
+        CachedNewsStore store = store(new TreeMapNewsBackend());
+        NewsEntity redApple = news("red apple");
+        NewsEntity redCar = news("red car");
+        NewsEntity redApplePie = news("red apple pie");
+        NewsEntity appleRed = news("apple red");
+        store.saveAll(List.of(redApple, redCar, redApplePie, appleRed));
+        NewsEntity blueCar = news("blue car");
+        blueCar.setNumber(redCar.getNumber());
+        store.update(blueCar);
+
+        assertEquals(numbers(List.of(redApple, redApplePie, appleRed)),
+                numbers(store.search(NewsSearchQuery.parse("red", null), 0, PAGE)));
+        assertEquals(numbers(List.of(blueCar)),
+                numbers(store.search(NewsSearchQuery.parse("blue car", null), 0, PAGE)));
+
+        NewsSearchQuery phrase = NewsSearchQuery.parse("\"red apple\"", null);
+        NewsSearchResult first = store.search(phrase, 0, 1);
+        assertEquals(numbers(List.of(redApple)), numbers(first));
+        assertEquals(PHRASE_CANDIDATES, first.getTotal());
+        NewsSearchResult last = store.search(phrase, 1, PAGE);
+        assertEquals(numbers(List.of(redApplePie)), numbers(last));
+        assertEquals(PHRASE_MATCHES, last.getTotal());
+    }
+
+    @Test
+    @DisplayName("Страница новостей автора берется из середины его списка, общее число - все его новости")
+    public void authorPage() {
+        CachedNewsStore store = store(new TreeMapNewsBackend());
+        List<NewsEntity> byAuthor = List.of(news("first"), news("second"), news("third"));
+        NewsEntity other = news("other");
+        other.setAuthor("other");
+        store.saveAll(List.of(byAuthor.get(0), other, byAuthor.get(1), byAuthor.get(2)));
+
+        NewsSearchResult page = store.findByAuthor(" AUTHOR ", 1, 1);
+        assertEquals(numbers(byAuthor.subList(1, 2)), numbers(page));
+        assertEquals(byAuthor.size(), page.getTotal());
+        assertEquals(List.of(), numbers(store.findByAuthor("author", byAuthor.size(), PAGE)));
+    }
+
+    private CachedNewsStore store(NewsBackend backend) {
+        CachedNewsStore store = new CachedNewsStore(backend, new NewsStoreProperties(), new SimpleMeterRegistry());
+        store.load();
+        store.addListener(new NewsStoreListener() {
+            @Override
+            public void onSaved(NewsEntity entity) {
+                onSavedAll(List.of(entity));
+            }
+
+            @Override
+            public void onSavedAll(List<NewsEntity> entities) {
+                events.add("saved " + entities.stream().map(NewsEntity::getNumber).toList());
+            }
+
+            @Override
+            public void onUpdated(NewsEntity entity) {
+                onUpdatedAll(List.of(entity));
+            }
+
+            @Override
+            public void onUpdatedAll(List<NewsEntity> entities) {
+                events.add("updated " + entities.stream().map(NewsEntity::getNumber).toList());
+            }
+
+            @Override
+            public void onDeleted(Integer number) {
+                onDeletedAll(List.of(number));
+            }
+
+            @Override
+            public void onDeletedAll(List<Integer> numbers) {
+                events.add("deleted " + numbers);
+            }
+        });
+        return store;
+    }
+
+    private static List<Integer> numbers(List<NewsEntity> entities) {
+        return entities.stream().map(NewsEntity::getNumber).toList();
+    }
+
+    private static List<Integer> numbers(NewsSearchResult result) {
+        return numbers(result.getContent());
+    }
+
+    private static NewsEntity news(String title) {
+        return NewsEntity.builder()
+                .title(title)
+                .text("text")
+                .author("author")
+                .build();
+    }
+}
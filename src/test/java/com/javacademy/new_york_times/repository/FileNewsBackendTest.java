@@ -0,0 +1,101 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileNewsBackendTest {
+    private static final long NO_COMPACTION = Long.MAX_VALUE;
+    private static final int SEEDED_NEWS = 3;
+    private static final byte[] TORN_RECORD = {0, 0, 0, 42, 1, 2, 3};
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Новости переживают перезапуск, номера удаленных новостей не выдаются повторно после сжатия")
+    public void reopenAfterCompaction() throws IOException {
+        try (FileNewsBackend backend = FileNewsBackend.open(directory, FileNewsBackendTest::seed, true,
+                NO_COMPACTION)) {
+            NewsEntity updated = news("updated");
+            updated.setNumber(1);
+            backend.update(updated);
+            assertTrue(backend.deleteByNumber(SEEDED_NEWS));
+            backend.compact();
+        }
+
+        try (FileNewsBackend backend = FileNewsBackend.open(directory, List::of, true, NO_COMPACTION)) {
+            List<NewsEntity> all = backend.findAll();
+            assertEquals(List.of(1, 2), all.stream().map(NewsEntity::getNumber).toList());
+            assertEquals("updated", all.get(0).getTitle());
+            NewsEntity created = news("created");
+            backend.save(created);
+            assertEquals(SEEDED_NEWS + 1, created.getNumber());
+        }
+    }
+
+    @Test
+    @DisplayName("После сбоя индекс пересобирается по журналу, оборванный хвост отрезается")
+    public void recoverAfterCrash() throws IOException {
+        FileNewsBackend crashed = FileNewsBackend.open(directory, FileNewsBackendTest::seed, true, NO_COMPACTION);
+        assertTrue(crashed.deleteByNumber(2));
+        Path log = directory.resolve(FileNewsBackend.LOG_FILE);
+        long validLength = Files.size(log);
+        Files.write(log, TORN_RECORD, StandardOpenOption.APPEND);
+
+        try (FileNewsBackend backend = FileNewsBackend.open(directory, List::of, true, NO_COMPACTION)) {
+            assertEquals(validLength, Files.size(log));
+            assertEquals(List.of(1, SEEDED_NEWS), backend.findAll().stream().map(NewsEntity::getNumber).toList());
+            assertFalse(backend.deleteByNumber(2));
+        } finally {
+            crashed.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Прерванный первый импорт не оставляет журнала и целиком повторяется при следующем запуске")
+    public void interruptedImportIsRepeated() throws IOException {
+        List<NewsEntity> broken = new ArrayList<>(seed());
+        broken.add(news("without number"));
+        assertThrows(NullPointerException.class,
+                () -> FileNewsBackend.open(directory, () -> broken, true, NO_COMPACTION));
+        assertFalse(Files.exists(directory.resolve(FileNewsBackend.LOG_FILE)));
+
+        try (FileNewsBackend backend = FileNewsBackend.open(directory, FileNewsBackendTest::seed, true,
+                NO_COMPACTION)) {
+            assertEquals(SEEDED_NEWS, backend.findAll().size());
+        }
+    }
+
+    private static List<NewsEntity> seed() {
+        return IntStream.rangeClosed(1, SEEDED_NEWS)
+                .mapToObj(number -> {
+                    NewsEntity entity = news("seed");
+                    entity.setNumber(number);
+                    return entity;
+                })
+                .toList();
+    }
+
+    private static NewsEntity news(String title) {
+        return NewsEntity.builder()
+                .title(title)
+                .text("text")
+                .author("author")
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.javacademy.new_york_times.repository;
+
+import com.javacademy.new_york_times.entity.NewsEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Тот же контракт, что у {@link NewsRepository}, на таком же непотокобезопасном {@link TreeMap},
+ * но без задержки {@code findAll}: согласованность обращений к нему обеспечивает только хранилище.
+ */
+class TreeMapNewsBackend implements NewsBackend {
+    private final Map<Integer, NewsEntity> data = new TreeMap<>();
+    private int counter;
+
+    @Override
+    public List<NewsEntity> findAll() {
+        return new ArrayList<>(data.values());
+    }
+
+    @Override
+    public void save(NewsEntity entity) {
+        if (entity.getNumber() != null) {
+            throw new IllegalStateException("News %s already exists".formatted(entity.getNumber()));
+        }
+        entity.setNumber(++counter);
+        data.put(entity.getNumber(), entity);
+    }
+
+    @Override
+    public void update(NewsEntity updateEntity) {
+        if (!data.containsKey(updateEntity.getNumber())) {
+            throw new IllegalStateException("News %s does not exist".formatted(updateEntity.getNumber()));
+        }
+        data.put(updateEntity.getNumber(), updateEntity);
+    }
+
+    @Override
+    public boolean deleteByNumber(Integer number) {
+        return data.remove(number) != null;
+    }
+}
@@ -0,0 +1,80 @@
+package com.javacademy.new_york_times.service;
+
+import com.javacademy.new_york_times.cache.InProcessNewsCacheBus;
+import com.javacademy.new_york_times.cache.InProcessSharedNewsCache;
+import com.javacademy.new_york_times.cache.NewsCacheBus;
+import com.javacademy.new_york_times.cache.NewsCacheInvalidator;
+import com.javacademy.new_york_times.cache.NewsRevisionCheck;
+import com.javacademy.new_york_times.cache.SharedNewsCache;
+import com.javacademy.new_york_times.cache.SingleFlightLoader;
+import com.javacademy.new_york_times.cache.TwoLevelCacheManager;
+import com.javacademy.new_york_times.changes.NewsChangeLog;
+import com.javacademy.new_york_times.config.NewsChangesProperties;
+import com.javacademy.new_york_times.config.NewsPageProperties;
+import com.javacademy.new_york_times.config.NewsStoreProperties;
+import com.javacademy.new_york_times.dto.NewsDto;
+import com.javacademy.new_york_times.mapper.NewsMapper;
+import com.javacademy.new_york_times.mapper.NewsPatchMapper;
+import com.javacademy.new_york_times.repository.CachedNewsStore;
+import com.javacademy.new_york_times.repository.NewsRepository;
+import com.javacademy.new_york_times.repository.RepositoryNewsBackend;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class NewsServiceTwoNodeTest {
+    private static final int NUMBER = 1;
+
+    private final SharedNewsCache sharedCache = new InProcessSharedNewsCache();
+    private final NewsCacheBus bus = new InProcessNewsCacheBus();
+
+    @Test
+    @DisplayName("Условный PATCH проходит на узле, который видит в общем кэше версию, записанную другим узлом")
+    public void conditionalPatchAfterOtherNodeWrite() {
+        NewsService nodeA = node("a");
+        NewsService nodeB = node("b");
+        nodeA.save(news("original"));
+        nodeB.save(news("original"));
+
+        assertEquals("from a", nodeA.updateForPatchIfUnchanged(nodeA.findByNumber(NUMBER), news("from a")).getTitle());
+        assertEquals("from b", nodeB.updateForPatchIfUnchanged(nodeB.findByNumber(NUMBER), news("from b")).getTitle());
+        assertEquals("from a", nodeA.findByNumber(NUMBER).getTitle());
+        assertEquals("again from a",
+                nodeA.updateForPatchIfUnchanged(nodeA.findByNumber(NUMBER), news("again from a")).getTitle());
+    }
+
+    private NewsService node(String name) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CachedNewsStore store = new CachedNewsStore(new RepositoryNewsBackend(new NewsRepository()),
+                new NewsStoreProperties(), meterRegistry);
+        store.load();
+        NewsPageProperties pageProperties = new NewsPageProperties();
+        NewsMapper newsMapper = Mappers.getMapper(NewsMapper.class);
+        CacheManager cacheManager = new TwoLevelCacheManager(new CaffeineCacheManager(), sharedCache, bus,
+                new NewsRevisionCheck(store, pageProperties), name, meterRegistry);
+        new NewsCacheInvalidator(store, pageProperties, newsMapper, cacheManager, meterRegistry).start();
+        NewsChangesProperties changesProperties = new NewsChangesProperties();
+        ObjectMapper objectMapper = new ObjectMapper();
+        NewsService newsService = new NewsService(store, newsMapper, new NewsPatchMapper(), pageProperties,
+                new SingleFlightLoader(meterRegistry), cacheManager, meterRegistry, objectMapper,
+                new NewsChangeLog(store, newsMapper, objectMapper, new SimpleAsyncTaskExecutor(), changesProperties),
+                changesProperties);
+        newsService.registerNotFoundCounters();
+        return newsService;
+    }
+
+    private static NewsDto news(String title) {
+        return NewsDto.builder()
+                .title(title)
+                .text("text")
+                .author("author")
+                .build();
+    }
+}